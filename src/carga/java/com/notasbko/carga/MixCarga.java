@@ -0,0 +1,128 @@
+package com.notasbko.carga;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+// Mix de chamadas da API usado no teste de carga. Os ids sorteados seguem os volumes da massa sintética
+// (identidades reiniciadas pelo GeradorDados, então lojas, notas e lembretes vão de 1 até o total gerado)
+final class MixCarga {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+    private static final String[] TERMOS = {"estoque", "fornecedor", "pedido", "entrega", "cliente", "pagamento"};
+    private static final String[] CARGOS = {"GERENTE", "VENDEDOR"};
+
+    private final List<Operacao> operacoes;
+    private final int[] pesosAcumulados;
+
+    private MixCarga(List<Operacao> operacoes) {
+        this.operacoes = operacoes.stream().filter(operacao -> operacao.peso() > 0).toList();
+        if (this.operacoes.isEmpty()) {
+            throw new IllegalArgumentException("O mix de carga precisa de ao menos uma operação com peso");
+        }
+        pesosAcumulados = new int[this.operacoes.size()];
+        int total = 0;
+        for (int i = 0; i < this.operacoes.size(); i++) {
+            total += this.operacoes.get(i).peso();
+            pesosAcumulados[i] = total;
+        }
+    }
+
+    // Pesos padrão aproximando o uso do backoffice: leituras dominam, escritas em lembretes e contatos completam
+    static Map<String, Operacao> operacoesPadrao(URI base, int lojas, int notas, int lembretes) {
+        Map<String, Operacao> mix = new LinkedHashMap<>();
+        adicionar(mix, new Operacao("notas", 15, Set.of(200),
+            (random, seq) -> get(base, "/api/notas?limit=50")));
+        adicionar(mix, new Operacao("notas-loja", 15, Set.of(200),
+            (random, seq) -> get(base, "/api/notas/loja/" + id(random, lojas) + "?limit=50")));
+        adicionar(mix, new Operacao("notas-buscar", 20, Set.of(200),
+            (random, seq) -> get(base, "/api/notas/buscar?limit=20&texto=" + TERMOS[random.nextInt(TERMOS.length)]
+                + (random.nextBoolean() ? "&lojaId=" + id(random, lojas) : ""))));
+        adicionar(mix, new Operacao("dashboard-resumo", 10, Set.of(200),
+            (random, seq) -> get(base, "/api/dashboard/resumo")));
+        adicionar(mix, new Operacao("dashboard-estatisticas-notas", 5, Set.of(200),
+            (random, seq) -> get(base, "/api/dashboard/estatisticas/notas")));
+        adicionar(mix, new Operacao("dashboard-estatisticas-loja", 5, Set.of(200),
+            (random, seq) -> get(base, "/api/dashboard/estatisticas/loja/" + id(random, lojas))));
+        adicionar(mix, new Operacao("dashboard-atividades", 5, Set.of(200),
+            (random, seq) -> get(base, "/api/dashboard/atividades-recentes")));
+        adicionar(mix, new Operacao("dashboard-graficos", 5, Set.of(200),
+            (random, seq) -> get(base, "/api/dashboard/graficos")));
+        adicionar(mix, new Operacao("lembretes-notificar", 8, Set.of(200),
+            (random, seq) -> patch(base, "/api/lembretes/bulk/notificar",
+                "{\"ids\":[" + id(random, lembretes) + "," + id(random, lembretes) + "," + id(random, lembretes) + "]}")));
+        adicionar(mix, new Operacao("lembretes-adiar", 7, Set.of(200),
+            (random, seq) -> patch(base, "/api/lembretes/bulk/adiar?minutos=" + (15 + random.nextInt(120)),
+                "{\"notaId\":" + id(random, notas) + "}")));
+        // Matrículas da faixa alta podem coincidir com as da massa sintética; o conflito (409) é uma resposta válida
+        adicionar(mix, new Operacao("contatos-criar", 5, Set.of(201, 409),
+            (random, seq) -> post(base, "/api/contatos",
+                "{\"nome\":\"Contato Carga " + seq + "\",\"matricula\":\"T" + String.format("%07d", 9_000_000 + seq % 1_000_000)
+                    + "\",\"cargo\":\"" + CARGOS[random.nextInt(CARGOS.length)] + "\",\"email\":\"carga" + seq
+                    + "@exemplo.com\",\"loja\":{\"id\":" + id(random, lojas) + "}}")));
+        return mix;
+    }
+
+    // Pesos no formato "nome:peso,nome:peso"; operações não citadas ficam fora do mix
+    static MixCarga de(Map<String, Operacao> disponiveis, String pesos) {
+        if (pesos == null || pesos.isBlank()) {
+            return new MixCarga(new ArrayList<>(disponiveis.values()));
+        }
+        List<Operacao> selecionadas = new ArrayList<>();
+        for (String item : pesos.split(",")) {
+            String[] partes = item.trim().split(":");
+            Operacao operacao = disponiveis.get(partes[0]);
+            if (operacao == null || partes.length != 2) {
+                throw new IllegalArgumentException("Item de mix inválido: " + item + " (operações: " + disponiveis.keySet() + ")");
+            }
+            selecionadas.add(operacao.comPeso(Integer.parseInt(partes[1])));
+        }
+        return new MixCarga(selecionadas);
+    }
+
+    List<Operacao> operacoes() {
+        return operacoes;
+    }
+
+    int sortear(Random random) {
+        int valor = random.nextInt(pesosAcumulados[pesosAcumulados.length - 1]);
+        for (int i = 0; i < pesosAcumulados.length; i++) {
+            if (valor < pesosAcumulados[i]) {
+                return i;
+            }
+        }
+        return pesosAcumulados.length - 1;
+    }
+
+    private static void adicionar(Map<String, Operacao> mix, Operacao operacao) {
+        mix.put(operacao.nome(), operacao);
+    }
+
+    private static long id(Random random, int total) {
+        return 1 + random.nextInt(Math.max(1, total));
+    }
+
+    private static HttpRequest get(URI base, String caminho) {
+        return HttpRequest.newBuilder(base.resolve(caminho)).timeout(TIMEOUT).GET().build();
+    }
+
+    private static HttpRequest patch(URI base, String caminho, String corpo) {
+        return HttpRequest.newBuilder(base.resolve(caminho)).timeout(TIMEOUT)
+            .header("Content-Type", "application/json")
+            .method("PATCH", HttpRequest.BodyPublishers.ofString(corpo))
+            .build();
+    }
+
+    private static HttpRequest post(URI base, String caminho, String corpo) {
+        return HttpRequest.newBuilder(base.resolve(caminho)).timeout(TIMEOUT)
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(corpo))
+            .build();
+    }
+}
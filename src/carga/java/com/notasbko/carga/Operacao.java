@@ -0,0 +1,24 @@
+package com.notasbko.carga;
+
+import java.net.http.HttpRequest;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.BiFunction;
+
+// Uma chamada da API no mix de carga: peso relativo, montagem da requisição e status considerados sucesso
+record Operacao(String nome, int peso, Set<Integer> statusEsperados, BiFunction<Random, Long, HttpRequest> requisicao) {
+
+    Operacao {
+        if (peso < 0) {
+            throw new IllegalArgumentException("Peso negativo para " + nome);
+        }
+    }
+
+    Operacao comPeso(int novoPeso) {
+        return new Operacao(nome, novoPeso, statusEsperados, requisicao);
+    }
+
+    boolean sucesso(int status) {
+        return statusEsperados.contains(status);
+    }
+}
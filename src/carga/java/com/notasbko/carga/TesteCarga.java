@@ -0,0 +1,247 @@
+package com.notasbko.carga;
+
+import com.notasbko.NotasBkoApplication;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+// Teste de carga HTTP: sobe a aplicação numa porta aleatória com a massa sintética e dispara o mix de chamadas
+// numa taxa fixa (modelo aberto). A latência é medida a partir do instante planejado de cada chamada, então a
+// espera na fila dos usuários virtuais entra na conta quando o servidor não acompanha a taxa.
+// mvn -P carga compile exec:exec -Dcarga.args="--taxa=300 --usuarios=64 --duracao=60 --notas=100000"
+public final class TesteCarga {
+
+    private static final Set<String> OPCOES = Set.of("alvo", "taxa", "usuarios", "duracao", "aquecimento", "notas",
+        "mix", "semente", "saida");
+
+    private TesteCarga() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opcoes = new HashMap<>();
+        for (String arg : args) {
+            int igual = arg.indexOf('=');
+            String chave = arg.startsWith("--") && igual > 2 ? arg.substring(2, igual) : null;
+            if (chave == null || !OPCOES.contains(chave)) {
+                System.err.println("Opção inválida: " + arg + " (use --chave=valor com " + OPCOES + ")");
+                System.exit(2);
+            }
+            opcoes.put(chave, arg.substring(igual + 1));
+        }
+
+        int taxa = Integer.parseInt(opcoes.getOrDefault("taxa", "200"));
+        int usuarios = Integer.parseInt(opcoes.getOrDefault("usuarios", "64"));
+        int duracao = Integer.parseInt(opcoes.getOrDefault("duracao", "60"));
+        int aquecimento = Integer.parseInt(opcoes.getOrDefault("aquecimento", "15"));
+        int notas = Integer.parseInt(opcoes.getOrDefault("notas", "100000"));
+        long semente = Long.parseLong(opcoes.getOrDefault("semente", "42"));
+        Path saida = Path.of(opcoes.getOrDefault("saida", "target/carga-resultado.csv"));
+        if (taxa <= 0 || usuarios <= 0 || duracao <= 0 || aquecimento < 0) {
+            System.err.println("taxa, usuarios e duracao devem ser positivos");
+            System.exit(2);
+        }
+
+        // Com --alvo a carga vai para um servidor já em execução, populado com os mesmos volumes de --notas
+        ConfigurableApplicationContext contexto = null;
+        URI base;
+        if (opcoes.containsKey("alvo")) {
+            base = URI.create(opcoes.get("alvo"));
+        } else {
+            contexto = iniciarAplicacao(notas);
+            base = URI.create("http://localhost:" + contexto.getEnvironment().getProperty("local.server.port") + "/");
+        }
+
+        try {
+            MixCarga mix = MixCarga.de(MixCarga.operacoesPadrao(base, lojas(notas), notas, notas / 2), opcoes.get("mix"));
+            System.out.printf("Carga em %s: %d req/s, %d usuários virtuais, %ds de aquecimento e %ds de medição%n",
+                base, taxa, usuarios, aquecimento, duracao);
+            Map<String, Medicao> medicoes = executar(mix, taxa, usuarios, aquecimento, duracao, semente);
+            relatorio(medicoes, duracao, System.out);
+            gravarCsv(medicoes, duracao, saida);
+            System.out.println("Resultado gravado em " + saida);
+        } finally {
+            if (contexto != null) {
+                contexto.close();
+            }
+        }
+    }
+
+    // Mesma proporção de notas por loja dos benchmarks JMH
+    static int lojas(int notas) {
+        return Math.max(1, notas / 1000);
+    }
+
+    private static ConfigurableApplicationContext iniciarAplicacao(int notas) {
+        // O reinício do DevTools relançaria este main com os argumentos do Spring; como propriedade de sistema ele é
+        // desligado antes de a aplicação ler o ambiente
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        return new SpringApplicationBuilder(NotasBkoApplication.class)
+            .run(
+                "--server.port=0",
+                "--spring.main.banner-mode=off",
+                "--spring.profiles.active=dados-sinteticos",
+                "--notasbko.gerador.lojas=" + lojas(notas),
+                "--notasbko.gerador.categorias-por-loja=5",
+                "--notasbko.gerador.notas=" + notas,
+                "--notasbko.gerador.lembretes=" + notas / 2,
+                "--notasbko.gerador.contatos-por-loja=2",
+                "--spring.datasource.url=jdbc:h2:mem:carga",
+                "--spring.h2.console.enabled=false",
+                "--spring.thymeleaf.check-template-location=false",
+                "--spring.jpa.open-in-view=false",
+                "--spring.devtools.add-properties=false",
+                "--spring.autoconfigure.exclude=org.springframework.boot.devtools.autoconfigure.DevToolsDataSourceAutoConfiguration",
+                // O log de cada SQL e requisição limitaria a própria taxa medida
+                "--spring.jpa.show-sql=false",
+                "--spring.jpa.properties.hibernate.format_sql=false",
+                "--spring.jpa.properties.hibernate.use_sql_comments=false",
+                "--logging.level.root=WARN",
+                "--logging.level.com.notasbko=WARN",
+                "--logging.level.org.springframework.web=WARN",
+                "--logging.level.org.hibernate.SQL=WARN",
+                "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+                "--logging.level.org.hibernate.orm.deprecation=ERROR",
+                "--logging.level.org.flywaydb=ERROR");
+    }
+
+    private static Map<String, Medicao> executar(MixCarga mix, int taxa, int usuarios, int aquecimento, int duracao,
+                                                 long semente) throws InterruptedException {
+        Map<String, Medicao> medicoes = new LinkedHashMap<>();
+        for (Operacao operacao : mix.operacoes()) {
+            medicoes.put(operacao.nome(), new Medicao());
+        }
+
+        HttpClient cliente = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+        ExecutorService usuariosVirtuais = Executors.newFixedThreadPool(usuarios);
+        Random random = new Random(semente);
+
+        long intervalo = TimeUnit.SECONDS.toNanos(1) / taxa;
+        long inicio = System.nanoTime();
+        long inicioMedicao = inicio + TimeUnit.SECONDS.toNanos(aquecimento);
+        long fim = inicioMedicao + TimeUnit.SECONDS.toNanos(duracao);
+        long sequencia = 0;
+        // O sorteio e a montagem das requisições ficam nesta thread para que a sequência dependa só da semente
+        for (long planejado = inicio; planejado < fim; planejado += intervalo) {
+            long espera = planejado - System.nanoTime();
+            if (espera > 0) {
+                LockSupport.parkNanos(espera);
+            }
+            Operacao operacao = mix.operacoes().get(mix.sortear(random));
+            HttpRequest requisicao = operacao.requisicao().apply(random, sequencia++);
+            Medicao medicao = planejado >= inicioMedicao ? medicoes.get(operacao.nome()) : null;
+            long instante = planejado;
+            usuariosVirtuais.execute(() -> chamar(cliente, requisicao, operacao, instante, medicao));
+        }
+
+        usuariosVirtuais.shutdown();
+        if (!usuariosVirtuais.awaitTermination(60, TimeUnit.SECONDS)) {
+            System.err.println("Requisições ainda pendentes após 60s; encerrando sem esperar por elas");
+            usuariosVirtuais.shutdownNow();
+        }
+        return medicoes;
+    }
+
+    private static void chamar(HttpClient cliente, HttpRequest requisicao, Operacao operacao, long planejado,
+                               Medicao medicao) {
+        boolean sucesso;
+        try {
+            HttpResponse<Void> resposta = cliente.send(requisicao, HttpResponse.BodyHandlers.discarding());
+            sucesso = operacao.sucesso(resposta.statusCode());
+        } catch (IOException e) {
+            sucesso = false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        if (medicao != null) {
+            medicao.registrar(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - planejado), sucesso);
+        }
+    }
+
+    private static void relatorio(Map<String, Medicao> medicoes, int duracao, PrintStream saida) {
+        saida.printf("%n%-30s %9s %7s %9s %10s %10s %10s %10s%n",
+            "operacao", "reqs", "erros", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms");
+        for (Map.Entry<String, Medicao> entrada : linhas(medicoes)) {
+            Medicao medicao = entrada.getValue();
+            Histogram histograma = medicao.histograma;
+            saida.printf(Locale.ROOT, "%-30s %9d %7d %9.1f %10.2f %10.2f %10.2f %10.2f%n",
+                entrada.getKey(), histograma.getTotalCount(), medicao.erros.sum(),
+                histograma.getTotalCount() / (double) duracao,
+                ms(histograma.getValueAtPercentile(50)), ms(histograma.getValueAtPercentile(95)),
+                ms(histograma.getValueAtPercentile(99)), ms(histograma.getMaxValue()));
+        }
+    }
+
+    private static void gravarCsv(Map<String, Medicao> medicoes, int duracao, Path arquivo) throws IOException {
+        List<String> linhas = new ArrayList<>();
+        linhas.add("operacao,requisicoes,erros,req_s,p50_ms,p95_ms,p99_ms,max_ms");
+        for (Map.Entry<String, Medicao> entrada : linhas(medicoes)) {
+            Histogram histograma = entrada.getValue().histograma;
+            linhas.add(String.format(Locale.ROOT, "%s,%d,%d,%.1f,%.2f,%.2f,%.2f,%.2f",
+                entrada.getKey(), histograma.getTotalCount(), entrada.getValue().erros.sum(),
+                histograma.getTotalCount() / (double) duracao,
+                ms(histograma.getValueAtPercentile(50)), ms(histograma.getValueAtPercentile(95)),
+                ms(histograma.getValueAtPercentile(99)), ms(histograma.getMaxValue())));
+        }
+        if (arquivo.getParent() != null) {
+            Files.createDirectories(arquivo.getParent());
+        }
+        Files.write(arquivo, linhas);
+    }
+
+    // Operações do mix seguidas do total agregado
+    private static List<Map.Entry<String, Medicao>> linhas(Map<String, Medicao> medicoes) {
+        Medicao total = new Medicao();
+        for (Medicao medicao : medicoes.values()) {
+            total.histograma.add(medicao.histograma);
+            total.erros.add(medicao.erros.sum());
+        }
+        List<Map.Entry<String, Medicao>> linhas = new ArrayList<>(medicoes.entrySet());
+        linhas.add(Map.entry("TOTAL", total));
+        return linhas;
+    }
+
+    private static double ms(long micros) {
+        return micros / 1000.0;
+    }
+
+    // Latências em microssegundos, com 3 dígitos significativos; o histograma cresce conforme os valores
+    private static final class Medicao {
+        private final Histogram histograma = new ConcurrentHistogram(3);
+        private final LongAdder erros = new LongAdder();
+
+        void registrar(long micros, boolean sucesso) {
+            histograma.recordValue(micros);
+            if (!sucesso) {
+                erros.increment();
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.notasbko.benchmark;
+
+import com.notasbko.dto.ContatoSugestao;
+import com.notasbko.entity.Contato.Cargo;
+import com.notasbko.service.ContatoIndiceAutocomplete;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Autocomplete de contatos: só o índice em memória, sem subir a aplicação, variando o tamanho das lojas
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class AutocompleteContatosBenchmark {
+
+    private static final int LOJAS = 1000;
+    private static final int LIMITE = 10;
+    private static final String[] NOMES = {"Ana", "Bruno", "Carla", "Diego", "Eduarda", "Felipe", "Gabriela", "Hugo",
+        "Isabela", "João", "Larissa", "Marcos", "Natália", "Otávio", "Patrícia", "Rafael", "Sofia", "Thiago", "Vitória",
+        "William"};
+    private static final String[] SOBRENOMES = {"Silva", "Santos", "Oliveira", "Souza", "Lima", "Ferreira", "Costa",
+        "Rodrigues", "Almeida", "Nascimento", "Araújo", "Carvalho", "Gomes", "Martins", "Ribeiro"};
+
+    @Param({"5", "50", "500"})
+    private int contatosPorLoja;
+
+    private ContatoIndiceAutocomplete indice;
+    private Long lojaId;
+    private String matricula;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        indice = new ContatoIndiceAutocomplete();
+        List<ContatoSugestao> contatos = new ArrayList<>();
+        Random random = new Random(42);
+        long id = 0;
+        for (long loja = 1; loja <= LOJAS; loja++) {
+            for (int i = 0; i < contatosPorLoja; i++) {
+                id++;
+                String nome = NOMES[random.nextInt(NOMES.length)];
+                String sobrenome = SOBRENOMES[random.nextInt(SOBRENOMES.length)];
+                contatos.add(new ContatoSugestao(id, nome + " " + sobrenome,
+                    (nome + "." + sobrenome + id + "@loja" + loja + ".com.br").toLowerCase(), String.format("T%07d", id),
+                    Cargo.values()[i % Cargo.values().length], loja));
+            }
+        }
+        indice.recarregar(contatos);
+        lojaId = (long) LOJAS / 2;
+        // Início da matrícula do primeiro contato da loja consultada
+        matricula = String.format("T%07d", (lojaId - 1) * contatosPorLoja + 1).substring(0, 6);
+    }
+
+    // Primeiras letras digitadas: muitos candidatos por prefixo
+    @Benchmark
+    public List<ContatoSugestao> prefixoCurto() {
+        return indice.sugerir("ma", lojaId, null, LIMITE);
+    }
+
+    @Benchmark
+    public List<ContatoSugestao> nomeESobrenome() {
+        return indice.sugerir("patri ribe", lojaId, null, LIMITE);
+    }
+
+    // Trecho no meio do email, resolvido pelos trigramas
+    @Benchmark
+    public List<ContatoSugestao> trechoDoEmail() {
+        return indice.sugerir("erreira12", lojaId, null, LIMITE);
+    }
+
+    @Benchmark
+    public List<ContatoSugestao> matricula() {
+        return indice.sugerir(matricula, lojaId, null, LIMITE);
+    }
+}
@@ -0,0 +1,78 @@
+package com.notasbko.benchmark;
+
+import com.notasbko.controller.NotaController;
+import com.notasbko.dto.NotaDTO;
+import com.notasbko.entity.Nota.StatusNota;
+import com.notasbko.service.NotaIndiceBusca;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Busca textual de notas: o índice em memória sozinho e o endpoint completo (índice + carga das notas)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class BuscaTextoBenchmark {
+
+    private static final int LIMITE = 50;
+
+    @Param({"1000", "100000", "1000000"})
+    private int notas;
+
+    private ConfigurableApplicationContext contexto;
+    private NotaIndiceBusca indice;
+    private NotaController notaController;
+    private Long lojaId;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        contexto = ContextoBenchmark.iniciar(notas);
+        indice = contexto.getBean(NotaIndiceBusca.class);
+        notaController = contexto.getBean(NotaController.class);
+        lojaId = (long) (ContextoBenchmark.lojas(notas) + 1) / 2;
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public List<Long> indiceUmTermo() {
+        return indice.buscar("estoque", null, null, LIMITE);
+    }
+
+    // Vários termos, o último como prefixo (busca enquanto digita)
+    @Benchmark
+    public List<Long> indiceTermosComPrefixo() {
+        return indice.buscar("estoque fornec", null, null, LIMITE);
+    }
+
+    @Benchmark
+    public List<Long> indicePorLojaEStatus() {
+        return indice.buscar("pedido", lojaId, StatusNota.PENDENTE, LIMITE);
+    }
+
+    @Benchmark
+    public ResponseEntity<List<NotaDTO>> endpointBuscar() {
+        return notaController.buscarNotasPorTexto("estoque fornec", null, null, LIMITE);
+    }
+}
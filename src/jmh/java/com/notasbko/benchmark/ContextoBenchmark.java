@@ -0,0 +1,68 @@
+package com.notasbko.benchmark;
+
+import com.notasbko.NotasBkoApplication;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+
+// Sobe a aplicação sem servidor web, com um banco H2 próprio populado pelo perfil dados-sinteticos
+final class ContextoBenchmark {
+
+    static final int NOTAS_POR_LOJA = 1000;
+
+    private ContextoBenchmark() {
+    }
+
+    static int lojas(int notas) {
+        return Math.max(1, notas / NOTAS_POR_LOJA);
+    }
+
+    // GET sem headers condicionais, para os endpoints que recebem WebRequest (o ETag é calculado, a resposta é 200)
+    static WebRequest requisicaoGet() {
+        HttpServletRequest request = (HttpServletRequest) Proxy.newProxyInstance(ContextoBenchmark.class.getClassLoader(),
+            new Class<?>[] {HttpServletRequest.class}, (proxy, metodo, args) -> switch (metodo.getName()) {
+                case "getMethod" -> "GET";
+                case "getHeaders" -> Collections.emptyEnumeration();
+                case "getDateHeader" -> -1L;
+                default -> null;
+            });
+        return new ServletWebRequest(request);
+    }
+
+    // Propriedades passadas como argumentos de linha de comando para prevalecer sobre o application.properties
+    static ConfigurableApplicationContext iniciar(int notas) {
+        return new SpringApplicationBuilder(NotasBkoApplication.class)
+            .web(WebApplicationType.NONE)
+            .run(
+                "--spring.main.banner-mode=off",
+                "--spring.profiles.active=dados-sinteticos",
+                "--notasbko.gerador.lojas=" + lojas(notas),
+                "--notasbko.gerador.categorias-por-loja=5",
+                "--notasbko.gerador.notas=" + notas,
+                "--notasbko.gerador.lembretes=" + notas / 2,
+                "--notasbko.gerador.contatos-por-loja=2",
+                "--spring.datasource.url=jdbc:h2:mem:benchmark-" + notas,
+                "--spring.h2.console.enabled=false",
+                "--spring.thymeleaf.check-template-location=false",
+                "--spring.devtools.restart.enabled=false",
+                "--spring.devtools.add-properties=false",
+                "--spring.autoconfigure.exclude=org.springframework.boot.devtools.autoconfigure.DevToolsDataSourceAutoConfiguration",
+                // SQL e logs de depuração distorcem as medições
+                "--spring.jpa.show-sql=false",
+                "--spring.jpa.properties.hibernate.format_sql=false",
+                "--spring.jpa.properties.hibernate.use_sql_comments=false",
+                "--logging.level.root=WARN",
+                "--logging.level.com.notasbko=WARN",
+                "--logging.level.org.springframework.web=WARN",
+                "--logging.level.org.hibernate.SQL=WARN",
+                "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+                "--logging.level.org.hibernate.orm.deprecation=ERROR",
+                "--logging.level.org.flywaydb=ERROR");
+    }
+}
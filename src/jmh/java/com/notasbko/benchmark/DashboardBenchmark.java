@@ -0,0 +1,88 @@
+package com.notasbko.benchmark;
+
+import com.notasbko.controller.DashboardController;
+import com.notasbko.dto.EstatisticasLoja;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+// Endpoints do dashboard chamados direto no bean do controller (sem HTTP nem serialização)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class DashboardBenchmark {
+
+    private static final int LOJAS_POR_CONSULTA = 10;
+
+    @Param({"1000", "100000", "1000000"})
+    private int notas;
+
+    private ConfigurableApplicationContext contexto;
+    private DashboardController dashboard;
+    private Long lojaId;
+    private List<Long> lojaIds;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        contexto = ContextoBenchmark.iniciar(notas);
+        dashboard = contexto.getBean(DashboardController.class);
+        int lojas = ContextoBenchmark.lojas(notas);
+        lojaId = (long) (lojas + 1) / 2;
+        lojaIds = LongStream.rangeClosed(1, Math.min(lojas, LOJAS_POR_CONSULTA)).boxed().toList();
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public ResponseEntity<Map<String, Object>> resumo() {
+        return dashboard.obterResumo(ContextoBenchmark.requisicaoGet());
+    }
+
+    @Benchmark
+    public ResponseEntity<Map<String, Object>> estatisticasNotas() {
+        return dashboard.obterEstatisticasNotas();
+    }
+
+    @Benchmark
+    public ResponseEntity<EstatisticasLoja> estatisticasPorLoja() {
+        return dashboard.obterEstatisticasPorLoja(lojaId);
+    }
+
+    @Benchmark
+    public ResponseEntity<List<EstatisticasLoja>> estatisticasPorLojas() {
+        return dashboard.obterEstatisticasPorLojas(lojaIds);
+    }
+
+    @Benchmark
+    public ResponseEntity<Map<String, Object>> atividadesRecentes() {
+        return dashboard.obterAtividadesRecentes(null, 5);
+    }
+
+    @Benchmark
+    public ResponseEntity<Map<String, Object>> graficos() {
+        return dashboard.obterDadosGraficos(5);
+    }
+}
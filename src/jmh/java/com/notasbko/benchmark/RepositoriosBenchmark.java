@@ -0,0 +1,101 @@
+package com.notasbko.benchmark;
+
+import com.notasbko.dto.ContagemNotasLoja;
+import com.notasbko.dto.LembreteDTO;
+import com.notasbko.dto.NotaDTO;
+import com.notasbko.repository.LembreteRepository;
+import com.notasbko.repository.NotaRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Consultas mais pesadas de notas e lembretes contra o H2 populado
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class RepositoriosBenchmark {
+
+    private static final int TAMANHO_PAGINA = 50;
+
+    @Param({"1000", "100000", "1000000"})
+    private int notas;
+
+    private ConfigurableApplicationContext contexto;
+    private NotaRepository notaRepository;
+    private LembreteRepository lembreteRepository;
+    private Long lojaId;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        contexto = ContextoBenchmark.iniciar(notas);
+        notaRepository = contexto.getBean(NotaRepository.class);
+        lembreteRepository = contexto.getBean(LembreteRepository.class);
+        lojaId = (long) (ContextoBenchmark.lojas(notas) + 1) / 2;
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public List<NotaDTO> notasPrimeiraPagina() {
+        return notaRepository.findPrimeiraPagina(Limit.of(TAMANHO_PAGINA));
+    }
+
+    @Benchmark
+    public List<NotaDTO> notasPrimeiraPaginaPorLoja() {
+        return notaRepository.findPrimeiraPaginaPorLoja(lojaId, Limit.of(TAMANHO_PAGINA));
+    }
+
+    @Benchmark
+    public List<NotaDTO> notasPorLoja() {
+        return notaRepository.findByLojaId(lojaId);
+    }
+
+    @Benchmark
+    public List<ContagemNotasLoja> notasContagemPorLojaEStatus() {
+        return notaRepository.countNotasPorLojaEStatus();
+    }
+
+    @Benchmark
+    public List<LembreteDTO> lembretesProximos() {
+        LocalDateTime agora = LocalDateTime.now();
+        return lembreteRepository.findLembretesProximos(agora, agora.plusHours(24));
+    }
+
+    @Benchmark
+    public List<LembreteDTO> lembretesPorLoja() {
+        return lembreteRepository.findByLojaId(lojaId);
+    }
+
+    @Benchmark
+    public List<LembreteDTO> lembretesPrimeiraPaginaAtivos() {
+        return lembreteRepository.findPrimeiraPaginaAtivos(Limit.of(TAMANHO_PAGINA));
+    }
+
+    @Benchmark
+    public Long lembretesContagemProximos() {
+        LocalDateTime agora = LocalDateTime.now();
+        return lembreteRepository.countLembretesProximos(agora, agora.plusHours(24));
+    }
+}
@@ -0,0 +1,72 @@
+package com.notasbko.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.notasbko.dto.LembreteDTO;
+import com.notasbko.dto.NotaDTO;
+import com.notasbko.repository.LembreteRepository;
+import com.notasbko.repository.NotaRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Serialização JSON das listas de notas e lembretes com o ObjectMapper configurado pela aplicação.
+// As listas são das projeções que a API devolve (NotaDTO/LembreteDTO), não das entidades
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SerializacaoBenchmark {
+
+    // A lista serializada não depende do volume do banco, só do tamanho da resposta
+    @Param({"10000"})
+    private int notas;
+
+    @Param({"50", "500", "5000"})
+    private int itens;
+
+    private ConfigurableApplicationContext contexto;
+    private ObjectMapper objectMapper;
+    private List<NotaDTO> listaNotas;
+    private List<LembreteDTO> listaLembretes;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        contexto = ContextoBenchmark.iniciar(notas);
+        objectMapper = contexto.getBean(ObjectMapper.class);
+        listaNotas = contexto.getBean(NotaRepository.class).findPrimeiraPagina(Limit.of(itens));
+        listaLembretes = contexto.getBean(LembreteRepository.class).findPrimeiraPagina(Limit.of(itens));
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public byte[] serializarNotas() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(listaNotas);
+    }
+
+    @Benchmark
+    public byte[] serializarLembretes() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(listaLembretes);
+    }
+}
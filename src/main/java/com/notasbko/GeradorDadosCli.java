@@ -0,0 +1,54 @@
+package com.notasbko;
+
+import com.notasbko.service.GeradorDados;
+import org.flywaydb.core.Flyway;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+// Gera a massa de dados sintética num banco H2 em arquivo, sem subir a aplicação:
+// mvn exec:java -Dexec.mainClass=com.notasbko.GeradorDadosCli -Dexec.args="--notas=2000000 --semente=7"
+public final class GeradorDadosCli {
+
+    private static final Set<String> OPCOES = Set.of("url", "usuario", "senha", "lojas", "categorias-por-loja",
+        "notas", "lembretes", "contatos-por-loja", "semente", "base");
+
+    private GeradorDadosCli() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opcoes = new HashMap<>();
+        for (String arg : args) {
+            int igual = arg.indexOf('=');
+            String chave = arg.startsWith("--") && igual > 2 ? arg.substring(2, igual) : null;
+            if (chave == null || !OPCOES.contains(chave)) {
+                System.err.println("Opção inválida: " + arg + " (use --chave=valor com " + OPCOES + ")");
+                System.exit(2);
+            }
+            opcoes.put(chave, arg.substring(igual + 1));
+        }
+
+        String url = opcoes.getOrDefault("url", "jdbc:h2:file:./dados/notasbko");
+        String usuario = opcoes.getOrDefault("usuario", "sa");
+        String senha = opcoes.getOrDefault("senha", "");
+        GeradorDados.Volumes volumes = new GeradorDados.Volumes(
+            Integer.parseInt(opcoes.getOrDefault("lojas", "500")),
+            Integer.parseInt(opcoes.getOrDefault("categorias-por-loja", "10")),
+            Integer.parseInt(opcoes.getOrDefault("notas", "200000")),
+            Integer.parseInt(opcoes.getOrDefault("lembretes", "50000")),
+            Integer.parseInt(opcoes.getOrDefault("contatos-por-loja", "5")),
+            Long.parseLong(opcoes.getOrDefault("semente", "42")),
+            opcoes.containsKey("base") ? LocalDateTime.parse(opcoes.get("base")) : GeradorDados.BASE_PADRAO);
+
+        // Mesmo esquema da aplicação; depois disso ela pode usar o arquivo com spring.datasource.url
+        Flyway.configure().dataSource(url, usuario, senha).load().migrate();
+        try (Connection conexao = DriverManager.getConnection(url, usuario, senha)) {
+            new GeradorDados(volumes).gerar(conexao);
+        }
+        System.out.println("Massa de dados gravada em " + url);
+    }
+}
@@ -1,21 +1,26 @@
 package com.notasbko.controller;
 
+import com.notasbko.dto.CategoriaComNotasDTO;
+import com.notasbko.dto.CategoriaDTO;
 import com.notasbko.entity.Categoria;
 import com.notasbko.entity.Loja;
 import com.notasbko.repository.CategoriaRepository;
 import com.notasbko.repository.LojaRepository;
+import com.notasbko.repository.NotaRepository;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/categorias")
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", exposedHeaders = {Cursor.HEADER_PROXIMO, HttpHeaders.ETAG})
 public class CategoriaController {
     
     @Autowired
@@ -24,39 +29,74 @@ public class CategoriaController {
     @Autowired
     private LojaRepository lojaRepository;
     
-    // Listar todas as categorias
+    @Autowired
+    private NotaRepository notaRepository;
+    
+    // Listar todas as categorias (paginado por cursor quando limit/cursor são informados)
     @GetMapping
-    public ResponseEntity<List<Categoria>> listarCategorias() {
-        List<Categoria> categorias = categoriaRepository.findAll();
-        return ResponseEntity.ok(categorias);
+    public ResponseEntity<List<CategoriaDTO>> listarCategorias(@RequestParam(required = false) Integer limit,
+                                                            @RequestParam(required = false) String cursor) {
+        if (limit == null && cursor == null) {
+            List<CategoriaDTO> categorias = categoriaRepository.findAllDtos();
+            return ResponseEntity.ok(categorias);
+        }
+        
+        try {
+            int tamanho = Cursor.limiteValido(limit);
+            Long aposId = cursor == null ? 0L : Cursor.decode(cursor).getId();
+            List<CategoriaDTO> categorias = categoriaRepository.findByIdGreaterThanOrderByIdAsc(aposId, Cursor.limiteConsulta(tamanho));
+            return Cursor.pagina(categorias, tamanho, categoria -> Cursor.encode(null, categoria.id()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
     
     // Listar categorias por loja
     @GetMapping("/loja/{lojaId}")
-    public ResponseEntity<List<Categoria>> listarCategoriasPorLoja(@PathVariable Long lojaId) {
-        List<Categoria> categorias = categoriaRepository.findByLojaId(lojaId);
-        return ResponseEntity.ok(categorias);
+    public ResponseEntity<List<CategoriaDTO>> listarCategoriasPorLoja(@PathVariable Long lojaId,
+                                                                   @RequestParam(required = false) Integer limit,
+                                                                   @RequestParam(required = false) String cursor,
+                                                                   WebRequest request) {
+        // 304 quando o cliente já tem a versão atual da listagem, sem carregá-la
+        if (Versao.naoModificado(request, categoriaRepository.findVersaoPorLoja(lojaId))) {
+            return null;
+        }
+        
+        if (limit == null && cursor == null) {
+            List<CategoriaDTO> categorias = categoriaRepository.findByLojaId(lojaId);
+            return ResponseEntity.ok(categorias);
+        }
+        
+        try {
+            int tamanho = Cursor.limiteValido(limit);
+            Long aposId = cursor == null ? 0L : Cursor.decode(cursor).getId();
+            List<CategoriaDTO> categorias = categoriaRepository.findByLojaIdAndIdGreaterThanOrderByIdAsc(lojaId, aposId,
+                Cursor.limiteConsulta(tamanho));
+            return Cursor.pagina(categorias, tamanho, categoria -> Cursor.encode(null, categoria.id()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
     
     // Buscar categoria por ID
     @GetMapping("/{id}")
-    public ResponseEntity<Categoria> buscarCategoriaPorId(@PathVariable Long id) {
-        Optional<Categoria> categoria = categoriaRepository.findById(id);
+    public ResponseEntity<CategoriaDTO> buscarCategoriaPorId(@PathVariable Long id) {
+        Optional<CategoriaDTO> categoria = categoriaRepository.findDtoById(id);
         return categoria.map(ResponseEntity::ok)
                        .orElse(ResponseEntity.notFound().build());
     }
     
     // Buscar categoria por ID com notas
     @GetMapping("/{id}/notas")
-    public ResponseEntity<Categoria> buscarCategoriaComNotas(@PathVariable Long id) {
-        Optional<Categoria> categoria = categoriaRepository.findByIdWithNotas(id);
-        return categoria.map(ResponseEntity::ok)
+    public ResponseEntity<CategoriaComNotasDTO> buscarCategoriaComNotas(@PathVariable Long id) {
+        Optional<CategoriaDTO> categoria = categoriaRepository.findDtoById(id);
+        return categoria.map(c -> ResponseEntity.ok(new CategoriaComNotasDTO(c, notaRepository.findByCategoriaIdOrderByDataNotaDesc(id))))
                        .orElse(ResponseEntity.notFound().build());
     }
     
     // Criar nova categoria
     @PostMapping
-    public ResponseEntity<Categoria> criarCategoria(@Valid @RequestBody CategoriaRequest request) {
+    public ResponseEntity<CategoriaDTO> criarCategoria(@Valid @RequestBody CategoriaRequest request) {
         Optional<Loja> loja = lojaRepository.findById(request.getLojaId());
         
         if (loja.isEmpty()) {
@@ -78,7 +118,7 @@ public class CategoriaController {
             categoria.setLoja(loja.get());
             
             Categoria novaCategoria = categoriaRepository.save(categoria);
-            return ResponseEntity.status(HttpStatus.CREATED).body(novaCategoria);
+            return ResponseEntity.status(HttpStatus.CREATED).body(CategoriaDTO.de(novaCategoria));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
         }
@@ -86,7 +126,7 @@ public class CategoriaController {
     
     // Atualizar categoria
     @PutMapping("/{id}")
-    public ResponseEntity<Categoria> atualizarCategoria(@PathVariable Long id, @Valid @RequestBody CategoriaRequest request) {
+    public ResponseEntity<CategoriaDTO> atualizarCategoria(@PathVariable Long id, @Valid @RequestBody CategoriaRequest request) {
         Optional<Categoria> categoriaExistente = categoriaRepository.findById(id);
         
         if (categoriaExistente.isEmpty()) {
@@ -98,7 +138,7 @@ public class CategoriaController {
         categoria.setDescricao(request.getDescricao());
         
         Categoria categoriaSalva = categoriaRepository.save(categoria);
-        return ResponseEntity.ok(categoriaSalva);
+        return ResponseEntity.ok(CategoriaDTO.de(categoriaSalva));
     }
     
     // Excluir categoria
@@ -114,8 +154,8 @@ public class CategoriaController {
     
     // Buscar categorias por nome
     @GetMapping("/buscar")
-    public ResponseEntity<List<Categoria>> buscarCategoriasPorNome(@RequestParam String nome) {
-        List<Categoria> categorias = categoriaRepository.findByNomeContainingIgnoreCase(nome);
+    public ResponseEntity<List<CategoriaDTO>> buscarCategoriasPorNome(@RequestParam String nome) {
+        List<CategoriaDTO> categorias = categoriaRepository.findByNomeContainingIgnoreCase(nome);
         return ResponseEntity.ok(categorias);
     }
     
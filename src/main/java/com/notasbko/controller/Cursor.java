@@ -0,0 +1,83 @@
+package com.notasbko.controller;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+// Cursor opaco para paginação keyset: codifica a chave de ordenação e o id do último item da página
+public final class Cursor {
+
+    public static final String HEADER_PROXIMO = "X-Next-Cursor";
+    public static final int LIMITE_PADRAO = 50;
+    public static final int LIMITE_MAXIMO = 500;
+
+    private final Long id;
+    private final String chave;
+
+    private Cursor(Long id, String chave) {
+        this.id = id;
+        this.chave = chave;
+    }
+
+    // Gerar o token a partir da chave de ordenação e do id
+    public static String encode(Object chave, Long id) {
+        String bruto = id + "|" + (chave != null ? chave.toString() : "");
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bruto.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Ler o token recebido do cliente (IllegalArgumentException se inválido)
+    public static Cursor decode(String token) {
+        String bruto = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        int separador = bruto.indexOf('|');
+        if (separador <= 0) {
+            throw new IllegalArgumentException("Cursor inválido");
+        }
+        return new Cursor(Long.valueOf(bruto.substring(0, separador)), bruto.substring(separador + 1));
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getChave() {
+        return chave;
+    }
+
+    public LocalDateTime getChaveComoData() {
+        try {
+            return LocalDateTime.parse(chave);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Cursor inválido", e);
+        }
+    }
+
+    // Normalizar o limit informado pelo cliente
+    public static int limiteValido(Integer limit) {
+        if (limit == null || limit <= 0) {
+            return LIMITE_PADRAO;
+        }
+        return Math.min(limit, LIMITE_MAXIMO);
+    }
+
+    // Busca sempre um item a mais para saber se existe próxima página
+    public static Limit limiteConsulta(int limite) {
+        return Limit.of(limite + 1);
+    }
+
+    // Montar a resposta da página, com o próximo cursor no header quando houver mais itens
+    public static <T> ResponseEntity<List<T>> pagina(List<T> resultado, int limite, Function<T, String> proximoCursor) {
+        if (resultado.size() <= limite) {
+            return ResponseEntity.ok(resultado);
+        }
+        List<T> itens = resultado.subList(0, limite);
+        return ResponseEntity.ok()
+            .header(HEADER_PROXIMO, proximoCursor.apply(itens.get(limite - 1)))
+            .body(itens);
+    }
+}
@@ -1,51 +1,94 @@
 package com.notasbko.controller;
 
-import com.notasbko.repository.CategoriaRepository;
+import com.notasbko.dto.ContagemNotasLoja;
+import com.notasbko.dto.EstatisticasLoja;
+import com.notasbko.entity.Nota.StatusNota;
 import com.notasbko.repository.LembreteRepository;
 import com.notasbko.repository.LojaRepository;
 import com.notasbko.repository.NotaRepository;
+import com.notasbko.service.AtividadesRecentes;
+import com.notasbko.service.ConsultasDashboard;
+import com.notasbko.service.ContadoresDashboard;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.time.LocalDateTime;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/dashboard")
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", exposedHeaders = HttpHeaders.ETAG)
 public class DashboardController {
     
     @Autowired
     private LojaRepository lojaRepository;
     
-    @Autowired
-    private CategoriaRepository categoriaRepository;
-    
     @Autowired
     private NotaRepository notaRepository;
     
     @Autowired
     private LembreteRepository lembreteRepository;
     
+    @Autowired
+    private ContadoresDashboard contadores;
+    
+    @Autowired
+    private AtividadesRecentes atividadesRecentes;
+    
+    @Autowired
+    private ConsultasDashboard consultas;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
     // Obter resumo geral do dashboard
     @GetMapping("/resumo")
-    public ResponseEntity<Map<String, Object>> obterResumo() {
+    public ResponseEntity<Map<String, Object>> obterResumo(WebRequest request) {
+        try {
+            Map<String, Object> resumo = montarResumo();
+            // O resumo sai dos contadores em memória e de uma contagem; o ETag pelo conteúdo evita reenviar o corpo
+            if (Versao.naoModificado(request, resumo)) {
+                return null;
+            }
+            return ResponseEntity.ok(resumo);
+        } catch (TimeoutException e) {
+            return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).build();
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+    
+    private Map<String, Object> montarResumo() throws TimeoutException {
         Map<String, Object> resumo = new HashMap<>();
         
-        // Contadores principais
-        resumo.put("totalLojas", lojaRepository.countTotalLojas());
-        resumo.put("totalCategorias", categoriaRepository.countTotalCategorias());
-        resumo.put("notasPendentes", notaRepository.countNotasPendentes());
-        resumo.put("lembretesAtivos", lembreteRepository.countLembretesAtivos());
+        // Contadores principais (em memória)
+        resumo.put("totalLojas", contadores.getTotalLojas());
+        resumo.put("totalCategorias", contadores.getTotalCategorias());
+        resumo.put("notasPendentes", contadores.getNotas(StatusNota.PENDENTE));
+        resumo.put("lembretesAtivos", contadores.getLembretesAtivos());
         
-        // Lembretes próximos (próximas 24 horas)
-        LocalDateTime agora = LocalDateTime.now();
-        LocalDateTime limite = agora.plusHours(24);
-        resumo.put("lembretesProximos", lembreteRepository.countLembretesProximos(agora, limite));
+        // Lembretes próximos (próximas 24 horas), consulta compartilhada entre chamadas simultâneas
+        resumo.put("lembretesProximos", consultas.executar("lembretes-proximos", () -> {
+            LocalDateTime agora = LocalDateTime.now();
+            return lembreteRepository.countLembretesProximos(agora, agora.plusHours(24));
+        }));
         
-        return ResponseEntity.ok(resumo);
+        return resumo;
     }
     
     // Obter estatísticas detalhadas das notas
@@ -53,86 +96,169 @@ public class DashboardController {
     public ResponseEntity<Map<String, Object>> obterEstatisticasNotas() {
         Map<String, Object> estatisticas = new HashMap<>();
         
-        // Contar notas por status
-        estatisticas.put("pendentes", notaRepository.countByStatus(com.notasbko.entity.Nota.StatusNota.PENDENTE));
-        estatisticas.put("emAndamento", notaRepository.countByStatus(com.notasbko.entity.Nota.StatusNota.EM_ANDAMENTO));
-        estatisticas.put("concluidas", notaRepository.countByStatus(com.notasbko.entity.Nota.StatusNota.CONCLUIDO));
+        // Contar notas por status (em memória)
+        estatisticas.put("pendentes", contadores.getNotas(StatusNota.PENDENTE));
+        estatisticas.put("emAndamento", contadores.getNotas(StatusNota.EM_ANDAMENTO));
+        estatisticas.put("concluidas", contadores.getNotas(StatusNota.CONCLUIDO));
         
         // Total de notas
-        Long totalNotas = notaRepository.count();
-        estatisticas.put("total", totalNotas);
+        estatisticas.put("total", contadores.getTotalNotas());
         
         return ResponseEntity.ok(estatisticas);
     }
     
-    // Obter estatísticas por loja
-    @GetMapping("/estatisticas/loja/{lojaId}")
-    public ResponseEntity<Map<String, Object>> obterEstatisticasPorLoja(@PathVariable Long lojaId) {
-        Map<String, Object> estatisticas = new HashMap<>();
-        
-        // Verificar se a loja existe
-        if (!lojaRepository.existsById(lojaId)) {
+    // Obter as notas de uma loja por status, dos contadores em memória
+    @GetMapping("/estatisticas/notas/loja/{lojaId}")
+    public ResponseEntity<Map<String, Object>> obterEstatisticasNotasDaLoja(@PathVariable Long lojaId) {
+        Map<StatusNota, Long> notas = contadores.getNotasDaLoja(lojaId);
+        if (notas == null) {
             return ResponseEntity.notFound().build();
         }
         
-        // Contar categorias da loja
-        estatisticas.put("totalCategorias", categoriaRepository.countCategoriasByLojaId(lojaId));
-        
-        // Contar notas por status na loja
-        estatisticas.put("notasPendentes", 
-            notaRepository.findByStatusAndLojaId(com.notasbko.entity.Nota.StatusNota.PENDENTE, lojaId).size());
-        estatisticas.put("notasEmAndamento", 
-            notaRepository.findByStatusAndLojaId(com.notasbko.entity.Nota.StatusNota.EM_ANDAMENTO, lojaId).size());
-        estatisticas.put("notasConcluidas", 
-            notaRepository.findByStatusAndLojaId(com.notasbko.entity.Nota.StatusNota.CONCLUIDO, lojaId).size());
-        
-        // Total de notas da loja
-        estatisticas.put("totalNotas", notaRepository.findByLojaId(lojaId).size());
-        
-        // Lembretes da loja
-        estatisticas.put("totalLembretes", lembreteRepository.findByLojaId(lojaId).size());
+        Map<String, Object> estatisticas = new HashMap<>();
+        estatisticas.put("lojaId", lojaId);
+        estatisticas.put("pendentes", notas.get(StatusNota.PENDENTE));
+        estatisticas.put("emAndamento", notas.get(StatusNota.EM_ANDAMENTO));
+        estatisticas.put("concluidas", notas.get(StatusNota.CONCLUIDO));
+        estatisticas.put("total", notas.values().stream().mapToLong(Long::longValue).sum());
         
         return ResponseEntity.ok(estatisticas);
     }
     
-    // Obter atividades recentes (últimas notas criadas)
+    // Obter estatísticas por loja
+    @GetMapping("/estatisticas/loja/{lojaId}")
+    public ResponseEntity<EstatisticasLoja> obterEstatisticasPorLoja(@PathVariable Long lojaId) {
+        try {
+            List<EstatisticasLoja> estatisticas = buscarEstatisticas(List.of(lojaId));
+            
+            // Loja inexistente não retorna linha
+            if (estatisticas.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            
+            return ResponseEntity.ok(estatisticas.get(0));
+        } catch (TimeoutException e) {
+            return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).build();
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+    
+    // Obter estatísticas de várias lojas de uma vez (?ids=1,2,3)
+    @GetMapping("/estatisticas/lojas")
+    public ResponseEntity<List<EstatisticasLoja>> obterEstatisticasPorLojas(@RequestParam List<Long> ids) {
+        if (ids.isEmpty()) {
+            return ResponseEntity.ok(List.of());
+        }
+        try {
+            return ResponseEntity.ok(buscarEstatisticas(ids));
+        } catch (TimeoutException e) {
+            return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).build();
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+    
+    // A chave usa os ids ordenados, para que a mesma seleção em outra ordem compartilhe a consulta
+    private List<EstatisticasLoja> buscarEstatisticas(List<Long> lojaIds) throws TimeoutException {
+        String chave = "estatisticas-lojas:" + lojaIds.stream().distinct().sorted()
+            .map(String::valueOf).collect(Collectors.joining(","));
+        return consultas.executar(chave, () -> {
+            LocalDateTime agora = LocalDateTime.now();
+            return lojaRepository.findEstatisticas(lojaIds, agora, agora.plusHours(24));
+        });
+    }
+    
+    // Obter atividades recentes (últimas notas criadas), servidas das estruturas em memória
     @GetMapping("/atividades-recentes")
-    public ResponseEntity<Map<String, Object>> obterAtividadesRecentes() {
+    public ResponseEntity<Map<String, Object>> obterAtividadesRecentes(@RequestParam(required = false) Long lojaId,
+                                                                       @RequestParam(defaultValue = "5") int n) {
         Map<String, Object> atividades = new HashMap<>();
+        int quantidade = Math.max(1, Math.min(n, AtividadesRecentes.MAXIMO_ITENS));
         
-        // Últimas 5 notas criadas
-        atividades.put("ultimasNotas", notaRepository.findAllByOrderByDataNotaDesc()
-            .stream().limit(5).toList());
+        // Últimas N notas criadas
+        atividades.put("ultimasNotas", atividadesRecentes.ultimasNotas(lojaId, quantidade));
         
         // Próximos lembretes
-        LocalDateTime agora = LocalDateTime.now();
-        LocalDateTime limite = agora.plusDays(7); // Próximos 7 dias
-        atividades.put("proximosLembretes", lembreteRepository.findLembretesProximos(agora, limite)
-            .stream().limit(5).toList());
+        LocalDateTime limite = LocalDateTime.now().plusDays(7); // Próximos 7 dias
+        atividades.put("proximosLembretes", atividadesRecentes.proximosLembretes(lojaId, quantidade, limite));
         
         return ResponseEntity.ok(atividades);
     }
     
     // Obter dados para gráficos
     @GetMapping("/graficos")
-    public ResponseEntity<Map<String, Object>> obterDadosGraficos() {
+    public ResponseEntity<Map<String, Object>> obterDadosGraficos(@RequestParam(defaultValue = "5") int top) {
+        try {
+            return ResponseEntity.ok(montarGraficos(top));
+        } catch (TimeoutException e) {
+            return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).build();
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+    
+    private Map<String, Object> montarGraficos(int top) throws TimeoutException {
         Map<String, Object> graficos = new HashMap<>();
         
+        // Uma única consulta agrupada alimenta os dois gráficos; independe de top, então é compartilhada por todos
+        List<ContagemNotasLoja> contagens = consultas.executar("notas-por-loja-e-status",
+            notaRepository::countNotasPorLojaEStatus);
+        
         // Distribuição de notas por status
         Map<String, Long> distribuicaoStatus = new HashMap<>();
-        distribuicaoStatus.put("PENDENTE", notaRepository.countByStatus(com.notasbko.entity.Nota.StatusNota.PENDENTE));
-        distribuicaoStatus.put("EM_ANDAMENTO", notaRepository.countByStatus(com.notasbko.entity.Nota.StatusNota.EM_ANDAMENTO));
-        distribuicaoStatus.put("CONCLUIDO", notaRepository.countByStatus(com.notasbko.entity.Nota.StatusNota.CONCLUIDO));
+        for (StatusNota status : StatusNota.values()) {
+            distribuicaoStatus.put(status.name(), 0L);
+        }
+        Map<Long, ContagemNotasLoja> totaisPorLoja = new HashMap<>();
+        for (ContagemNotasLoja contagem : contagens) {
+            if (contagem.status() != null) {
+                distribuicaoStatus.merge(contagem.status().name(), contagem.total(), Long::sum);
+            }
+            totaisPorLoja.merge(contagem.lojaId(), contagem, (atual, nova) ->
+                new ContagemNotasLoja(atual.lojaId(), atual.lojaNome(), null, atual.total() + nova.total()));
+        }
         graficos.put("distribuicaoStatus", distribuicaoStatus);
         
-        // Notas por loja (top 5)
-        Map<String, Long> notasPorLoja = new HashMap<>();
-        lojaRepository.findAll().forEach(loja -> {
-            Long count = (long) notaRepository.findByLojaId(loja.getId()).size();
-            notasPorLoja.put(loja.getNome(), count);
-        });
+        // Notas por loja (top N, maiores primeiro)
+        Map<String, Long> notasPorLoja = new LinkedHashMap<>();
+        totaisPorLoja.values().stream()
+            .sorted(Comparator.comparing(ContagemNotasLoja::total).reversed()
+                .thenComparing(ContagemNotasLoja::lojaNome))
+            .limit(Math.max(top, 0))
+            .forEach(contagem -> notasPorLoja.merge(contagem.lojaNome(), contagem.total(), Long::sum));
         graficos.put("notasPorLoja", notasPorLoja);
         
-        return ResponseEntity.ok(graficos);
+        return graficos;
+    }
+    
+    // Obter a taxa de acerto do cache de segundo nível (Loja e Categoria) e do cache de consultas, desde a subida
+    @GetMapping("/cache")
+    public ResponseEntity<Map<String, Object>> obterEstatisticasCache() {
+        Statistics estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        Map<String, Object> cache = new LinkedHashMap<>();
+        
+        // Entidades de referência
+        cache.put("lojas", estatisticasRegiao(estatisticas.getDomainDataRegionStatistics("lojas")));
+        cache.put("categorias", estatisticasRegiao(estatisticas.getDomainDataRegionStatistics("categorias")));
+        
+        // Resultados das consultas cacheáveis
+        cache.put("consultas", estatisticasRegiao(estatisticas.getQueryRegionStatistics("default-query-results-region")));
+        
+        // Comandos JDBC executados desde a subida, para comparar com os acertos acima
+        cache.put("consultasAoBanco", estatisticas.getPrepareStatementCount());
+        
+        return ResponseEntity.ok(cache);
+    }
+    
+    private static Map<String, Object> estatisticasRegiao(CacheRegionStatistics regiao) {
+        Map<String, Object> valores = new LinkedHashMap<>();
+        long acertos = regiao != null ? regiao.getHitCount() : 0;
+        long falhas = regiao != null ? regiao.getMissCount() : 0;
+        valores.put("acertos", acertos);
+        valores.put("falhas", falhas);
+        valores.put("insercoes", regiao != null ? regiao.getPutCount() : 0);
+        valores.put("taxaAcerto", acertos + falhas > 0 ? (double) acertos / (acertos + falhas) : 0.0);
+        return valores;
     }
-}
\ No newline at end of file
+}
@@ -1,22 +1,44 @@
 package com.notasbko.controller;
 
+import com.notasbko.dto.FiltroConsultaLembretes;
+import com.notasbko.dto.FiltroLembretes;
+import com.notasbko.dto.LembreteDTO;
+import com.notasbko.dto.ResultadoItemLote;
 import com.notasbko.entity.Lembrete;
 import com.notasbko.entity.Nota;
 import com.notasbko.repository.LembreteRepository;
 import com.notasbko.repository.NotaRepository;
+import com.notasbko.service.CanalLembretes;
+import com.notasbko.service.ConsultaFiltrada;
+import com.notasbko.service.ExportadorDados;
+import com.notasbko.service.LembretesEmMassa;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/lembretes")
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", exposedHeaders = {Cursor.HEADER_PROXIMO, HttpHeaders.ETAG})
 public class LembreteController {
     
     @Autowired
@@ -25,55 +47,156 @@ public class LembreteController {
     @Autowired
     private NotaRepository notaRepository;
     
-    // Listar todos os lembretes
+    @Autowired
+    private Validator validator;
+    
+    @Autowired
+    private ExportadorDados exportadorDados;
+    
+    @Autowired
+    private CanalLembretes canalLembretes;
+    
+    @Autowired
+    private LembretesEmMassa lembretesEmMassa;
+    
+    @Autowired
+    private ConsultaFiltrada consultaFiltrada;
+    
+    // Listar todos os lembretes (paginado por cursor quando limit/cursor são informados)
     @GetMapping
-    public ResponseEntity<List<Lembrete>> listarLembretes() {
-        List<Lembrete> lembretes = lembreteRepository.findAllByOrderByDataHoraLembreteAsc();
-        return ResponseEntity.ok(lembretes);
+    public ResponseEntity<List<LembreteDTO>> listarLembretes(@RequestParam(required = false) Integer limit,
+                                                          @RequestParam(required = false) String cursor) {
+        if (limit == null && cursor == null) {
+            List<LembreteDTO> lembretes = lembreteRepository.findAllByOrderByDataHoraLembreteAsc();
+            return ResponseEntity.ok(lembretes);
+        }
+        
+        try {
+            int tamanho = Cursor.limiteValido(limit);
+            List<LembreteDTO> lembretes;
+            if (cursor == null) {
+                lembretes = lembreteRepository.findPrimeiraPagina(Cursor.limiteConsulta(tamanho));
+            } else {
+                Cursor atual = Cursor.decode(cursor);
+                lembretes = lembreteRepository.findPaginaApos(atual.getChaveComoData(), atual.getId(), Cursor.limiteConsulta(tamanho));
+            }
+            return Cursor.pagina(lembretes, tamanho, this::cursorDe);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    // Consulta combinada: qualquer subconjunto dos filtros (texto no título/descrição, loja, nota, ativo, notificado
+    // e período de dataHoraLembrete), ordenada por sort=campo[,asc|desc] e paginada por cursor num único SELECT
+    @GetMapping("/query")
+    public ResponseEntity<List<LembreteDTO>> consultarLembretes(@RequestParam(required = false) String texto,
+                                                             @RequestParam(required = false) Long lojaId,
+                                                             @RequestParam(required = false) Long notaId,
+                                                             @RequestParam(required = false) Boolean ativo,
+                                                             @RequestParam(required = false) Boolean notificado,
+                                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime de,
+                                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime ate,
+                                                             @RequestParam(required = false) String sort,
+                                                             @RequestParam(required = false) Integer limit,
+                                                             @RequestParam(required = false) String cursor) {
+        try {
+            ConsultaFiltrada.Ordenacao ordenacao = ConsultaFiltrada.ordenacaoLembretes(sort);
+            int tamanho = Cursor.limiteValido(limit);
+            Cursor atual = cursor != null ? Cursor.decode(cursor) : null;
+            FiltroConsultaLembretes filtro = new FiltroConsultaLembretes(texto, lojaId, notaId, ativo, notificado, de, ate);
+            List<LembreteDTO> lembretes = consultaFiltrada.lembretes(filtro, ordenacao,
+                atual != null ? atual.getChave() : null, atual != null ? atual.getId() : null, tamanho + 1);
+            return Cursor.pagina(lembretes, tamanho,
+                lembrete -> Cursor.encode(ConsultaFiltrada.chaveCursor(ordenacao, lembrete), lembrete.id()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
     
     // Listar lembretes por nota
     @GetMapping("/nota/{notaId}")
-    public ResponseEntity<List<Lembrete>> listarLembretesPorNota(@PathVariable Long notaId) {
-        List<Lembrete> lembretes = lembreteRepository.findByNotaId(notaId);
+    public ResponseEntity<List<LembreteDTO>> listarLembretesPorNota(@PathVariable Long notaId) {
+        List<LembreteDTO> lembretes = lembreteRepository.findByNotaId(notaId);
         return ResponseEntity.ok(lembretes);
     }
     
     // Listar lembretes ativos
     @GetMapping("/ativos")
-    public ResponseEntity<List<Lembrete>> listarLembretesAtivos() {
-        List<Lembrete> lembretes = lembreteRepository.findByAtivoTrueOrderByDataHoraLembreteAsc();
-        return ResponseEntity.ok(lembretes);
+    public ResponseEntity<List<LembreteDTO>> listarLembretesAtivos(@RequestParam(required = false) Integer limit,
+                                                                @RequestParam(required = false) String cursor) {
+        if (limit == null && cursor == null) {
+            List<LembreteDTO> lembretes = lembreteRepository.findByAtivoTrueOrderByDataHoraLembreteAsc();
+            return ResponseEntity.ok(lembretes);
+        }
+        
+        try {
+            int tamanho = Cursor.limiteValido(limit);
+            List<LembreteDTO> lembretes;
+            if (cursor == null) {
+                lembretes = lembreteRepository.findPrimeiraPaginaAtivos(Cursor.limiteConsulta(tamanho));
+            } else {
+                Cursor atual = Cursor.decode(cursor);
+                lembretes = lembreteRepository.findPaginaAtivosApos(atual.getChaveComoData(), atual.getId(),
+                    Cursor.limiteConsulta(tamanho));
+            }
+            return Cursor.pagina(lembretes, tamanho, this::cursorDe);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
     
     // Listar lembretes próximos (próximas 24 horas)
     @GetMapping("/proximos")
-    public ResponseEntity<List<Lembrete>> listarLembretesProximos() {
+    public ResponseEntity<List<LembreteDTO>> listarLembretesProximos() {
         LocalDateTime agora = LocalDateTime.now();
         LocalDateTime limite = agora.plusHours(24);
-        List<Lembrete> lembretes = lembreteRepository.findLembretesProximos(agora, limite);
+        List<LembreteDTO> lembretes = lembreteRepository.findLembretesProximos(agora, limite);
         return ResponseEntity.ok(lembretes);
     }
     
     // Listar lembretes vencidos
     @GetMapping("/vencidos")
-    public ResponseEntity<List<Lembrete>> listarLembretesVencidos() {
+    public ResponseEntity<List<LembreteDTO>> listarLembretesVencidos() {
         LocalDateTime agora = LocalDateTime.now();
-        List<Lembrete> lembretes = lembreteRepository.findLembretesVencidos(agora);
+        List<LembreteDTO> lembretes = lembreteRepository.findLembretesVencidos(agora);
         return ResponseEntity.ok(lembretes);
     }
     
+    // Exportar lembretes (todos ou de uma loja) em NDJSON ou CSV, transmitidos enquanto são lidos do banco
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportarLembretes(@RequestParam(required = false) Long lojaId,
+                                                               @RequestParam(defaultValue = "ndjson") String formato) {
+        ExportadorDados.Formato tipo;
+        try {
+            tipo = ExportadorDados.Formato.de(formato);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        
+        StreamingResponseBody corpo = saida -> exportadorDados.exportarLembretes(lojaId, tipo, saida);
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(tipo.getContentType()))
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"lembretes." + tipo.getExtensao() + "\"")
+            .body(corpo);
+    }
+    
+    // Canal SSE com eventos de lembretes (vencido, criado, atualizado, removido), opcionalmente de uma loja
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter acompanharLembretes(@RequestParam(required = false) Long lojaId) {
+        return canalLembretes.inscrever(lojaId);
+    }
+    
     // Buscar lembrete por ID
     @GetMapping("/{id}")
-    public ResponseEntity<Lembrete> buscarLembretePorId(@PathVariable Long id) {
-        Optional<Lembrete> lembrete = lembreteRepository.findById(id);
+    public ResponseEntity<LembreteDTO> buscarLembretePorId(@PathVariable Long id) {
+        Optional<LembreteDTO> lembrete = lembreteRepository.findDtoById(id);
         return lembrete.map(ResponseEntity::ok)
                       .orElse(ResponseEntity.notFound().build());
     }
     
     // Criar novo lembrete
     @PostMapping
-    public ResponseEntity<Lembrete> criarLembrete(@Valid @RequestBody LembreteRequest request) {
+    public ResponseEntity<LembreteDTO> criarLembrete(@Valid @RequestBody LembreteRequest request) {
         Optional<Nota> nota = notaRepository.findById(request.getNotaId());
         
         if (nota.isEmpty()) {
@@ -92,7 +215,7 @@ public class LembreteController {
             }
             
             Lembrete novoLembrete = lembreteRepository.save(lembrete);
-            return ResponseEntity.status(HttpStatus.CREATED).body(novoLembrete);
+            return ResponseEntity.status(HttpStatus.CREATED).body(LembreteDTO.de(novoLembrete));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
         }
@@ -100,7 +223,7 @@ public class LembreteController {
     
     // Atualizar lembrete
     @PutMapping("/{id}")
-    public ResponseEntity<Lembrete> atualizarLembrete(@PathVariable Long id, @Valid @RequestBody LembreteRequest request) {
+    public ResponseEntity<LembreteDTO> atualizarLembrete(@PathVariable Long id, @Valid @RequestBody LembreteRequest request) {
         Optional<Lembrete> lembreteExistente = lembreteRepository.findById(id);
         
         if (lembreteExistente.isEmpty()) {
@@ -117,12 +240,95 @@ public class LembreteController {
         }
         
         Lembrete lembreteSalvo = lembreteRepository.save(lembrete);
-        return ResponseEntity.ok(lembreteSalvo);
+        return ResponseEntity.ok(LembreteDTO.de(lembreteSalvo));
+    }
+    
+    // Criar/atualizar lembretes em lote: itens com id atualizam o lembrete existente, os demais criam um novo.
+    // O payload inteiro é validado antes de gravar; os INSERTs/UPDATEs saem em batch no flush.
+    @PostMapping("/batch")
+    @Transactional
+    public ResponseEntity<List<ResultadoItemLote>> salvarLembretesEmLote(@RequestBody List<LembreteLoteRequest> itens) {
+        if (!Lote.tamanhoValido(itens)) {
+            return ResponseEntity.badRequest().build();
+        }
+        
+        // Resolver notas e lembretes referenciados com uma consulta IN cada
+        Set<Long> notaIds = new HashSet<>();
+        Set<Long> lembreteIds = new HashSet<>();
+        for (LembreteLoteRequest item : itens) {
+            if (item == null) {
+                continue;
+            }
+            if (item.getId() != null) {
+                lembreteIds.add(item.getId());
+            } else if (item.getNotaId() != null) {
+                notaIds.add(item.getNotaId());
+            }
+        }
+        Map<Long, Nota> notas = new HashMap<>();
+        if (!notaIds.isEmpty()) {
+            notaRepository.findAllComCategoriaByIdIn(notaIds).forEach(n -> notas.put(n.getId(), n));
+        }
+        Map<Long, Lembrete> existentes = new HashMap<>();
+        if (!lembreteIds.isEmpty()) {
+            lembreteRepository.findAllComNotaByIdIn(lembreteIds).forEach(l -> existentes.put(l.getId(), l));
+        }
+        
+        ResultadoItemLote[] resultados = new ResultadoItemLote[itens.size()];
+        Map<Integer, Lembrete> gravados = new LinkedHashMap<>();
+        List<Lembrete> novos = new ArrayList<>();
+        for (int i = 0; i < itens.size(); i++) {
+            LembreteLoteRequest item = itens.get(i);
+            if (item == null) {
+                resultados[i] = ResultadoItemLote.erro(i, null, "Item vazio");
+                continue;
+            }
+            
+            Lembrete lembrete = item.getId() != null ? existentes.get(item.getId()) : null;
+            Nota nota = item.getId() != null ? null : notas.get(item.getNotaId());
+            if (item.getId() != null && lembrete == null) {
+                resultados[i] = ResultadoItemLote.erro(i, item.getId(), "Lembrete não encontrado");
+                continue;
+            }
+            if (item.getId() == null && nota == null) {
+                resultados[i] = ResultadoItemLote.erro(i, null, "Nota não encontrada");
+                continue;
+            }
+            
+            // Validar numa cópia para não sujar a entidade gerenciada com dados inválidos
+            Lembrete candidato = new Lembrete();
+            candidato.setNota(lembrete != null ? lembrete.getNota() : nota);
+            preencher(candidato, item);
+            String erro = Lote.validar(validator, candidato);
+            if (erro != null) {
+                resultados[i] = ResultadoItemLote.erro(i, item.getId(), erro);
+                continue;
+            }
+            
+            if (lembrete != null) {
+                preencher(lembrete, item);
+                gravados.put(i, lembrete);
+            } else {
+                novos.add(candidato);
+                gravados.put(i, candidato);
+            }
+        }
+        
+        try {
+            lembreteRepository.saveAll(novos);
+            lembreteRepository.flush();
+        } catch (Exception e) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+        
+        gravados.forEach((i, lembrete) -> resultados[i] = ResultadoItemLote.sucesso(i, lembrete.getId(), itens.get(i).getId() == null));
+        return Lote.resposta(resultados);
     }
     
     // Marcar lembrete como notificado
     @PatchMapping("/{id}/notificar")
-    public ResponseEntity<Lembrete> marcarComoNotificado(@PathVariable Long id) {
+    public ResponseEntity<LembreteDTO> marcarComoNotificado(@PathVariable Long id) {
         Optional<Lembrete> lembreteExistente = lembreteRepository.findById(id);
         
         if (lembreteExistente.isEmpty()) {
@@ -133,12 +339,12 @@ public class LembreteController {
         lembrete.setNotificado(true);
         
         Lembrete lembreteSalvo = lembreteRepository.save(lembrete);
-        return ResponseEntity.ok(lembreteSalvo);
+        return ResponseEntity.ok(LembreteDTO.de(lembreteSalvo));
     }
     
     // Ativar/desativar lembrete
     @PatchMapping("/{id}/ativo")
-    public ResponseEntity<Lembrete> alterarStatusAtivo(@PathVariable Long id, @RequestParam Boolean ativo) {
+    public ResponseEntity<LembreteDTO> alterarStatusAtivo(@PathVariable Long id, @RequestParam Boolean ativo) {
         Optional<Lembrete> lembreteExistente = lembreteRepository.findById(id);
         
         if (lembreteExistente.isEmpty()) {
@@ -149,7 +355,37 @@ public class LembreteController {
         lembrete.setAtivo(ativo);
         
         Lembrete lembreteSalvo = lembreteRepository.save(lembrete);
-        return ResponseEntity.ok(lembreteSalvo);
+        return ResponseEntity.ok(LembreteDTO.de(lembreteSalvo));
+    }
+    
+    // Marcar como notificados, em uma única operação, os lembretes selecionados por ids e/ou filtros
+    @PatchMapping("/bulk/notificar")
+    public ResponseEntity<Integer> marcarComoNotificadosEmMassa(@RequestBody FiltroLembretes filtro) {
+        try {
+            return ResponseEntity.ok(lembretesEmMassa.marcarNotificados(filtro));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    // Ativar/desativar em massa
+    @PatchMapping("/bulk/ativo")
+    public ResponseEntity<Integer> alterarStatusAtivoEmMassa(@RequestParam Boolean ativo, @RequestBody FiltroLembretes filtro) {
+        try {
+            return ResponseEntity.ok(lembretesEmMassa.alterarAtivo(filtro, ativo));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    // Adiar em massa pelo deslocamento informado (de 1 minuto a um ano); os lembretes voltam a ficar pendentes de notificação
+    @PatchMapping("/bulk/adiar")
+    public ResponseEntity<Integer> adiarEmMassa(@RequestParam Long minutos, @RequestBody FiltroLembretes filtro) {
+        try {
+            return ResponseEntity.ok(lembretesEmMassa.adiar(filtro, minutos));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
     
     // Excluir lembrete
@@ -179,6 +415,20 @@ public class LembreteController {
         return ResponseEntity.ok(total);
     }
     
+    private String cursorDe(LembreteDTO lembrete) {
+        return Cursor.encode(lembrete.dataHoraLembrete(), lembrete.id());
+    }
+    
+    private static void preencher(Lembrete lembrete, LembreteRequest request) {
+        lembrete.setTitulo(request.getTitulo());
+        lembrete.setDescricao(request.getDescricao());
+        lembrete.setDataHoraLembrete(request.getDataHoraLembrete());
+        
+        if (request.getAtivo() != null) {
+            lembrete.setAtivo(request.getAtivo());
+        }
+    }
+    
     // Classe interna para request de lembrete
     public static class LembreteRequest {
         private String titulo;
@@ -228,4 +478,17 @@ public class LembreteController {
             this.notaId = notaId;
         }
     }
-}
\ No newline at end of file
+    
+    // Item do lote de lembretes (id presente = atualização)
+    public static class LembreteLoteRequest extends LembreteRequest {
+        private Long id;
+        
+        public Long getId() {
+            return id;
+        }
+        
+        public void setId(Long id) {
+            this.id = id;
+        }
+    }
+}
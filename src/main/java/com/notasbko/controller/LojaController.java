@@ -1,21 +1,25 @@
 package com.notasbko.controller;
 
+import com.notasbko.dto.LojaComCategoriasDTO;
+import com.notasbko.dto.LojaDTO;
 import com.notasbko.entity.Categoria;
 import com.notasbko.entity.Loja;
 import com.notasbko.repository.CategoriaRepository;
 import com.notasbko.repository.LojaRepository;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/lojas")
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", exposedHeaders = {Cursor.HEADER_PROXIMO, HttpHeaders.ETAG})
 public class LojaController {
     
     @Autowired
@@ -24,32 +28,50 @@ public class LojaController {
     @Autowired
     private CategoriaRepository categoriaRepository;
     
-    // Listar todas as lojas
+    // Listar todas as lojas (paginado por cursor quando limit/cursor são informados)
     @GetMapping
-    public ResponseEntity<List<Loja>> listarLojas() {
-        List<Loja> lojas = lojaRepository.findAll();
-        return ResponseEntity.ok(lojas);
+    public ResponseEntity<List<LojaDTO>> listarLojas(@RequestParam(required = false) Integer limit,
+                                                  @RequestParam(required = false) String cursor,
+                                                  WebRequest request) {
+        // 304 quando o cliente já tem a versão atual da listagem, sem carregá-la
+        if (Versao.naoModificado(request, lojaRepository.findVersao())) {
+            return null;
+        }
+        
+        if (limit == null && cursor == null) {
+            List<LojaDTO> lojas = lojaRepository.findAllDtos();
+            return ResponseEntity.ok(lojas);
+        }
+        
+        try {
+            int tamanho = Cursor.limiteValido(limit);
+            Long aposId = cursor == null ? 0L : Cursor.decode(cursor).getId();
+            List<LojaDTO> lojas = lojaRepository.findByIdGreaterThanOrderByIdAsc(aposId, Cursor.limiteConsulta(tamanho));
+            return Cursor.pagina(lojas, tamanho, loja -> Cursor.encode(null, loja.id()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
     
     // Buscar loja por ID
     @GetMapping("/{id}")
-    public ResponseEntity<Loja> buscarLojaPorId(@PathVariable Long id) {
-        Optional<Loja> loja = lojaRepository.findById(id);
+    public ResponseEntity<LojaDTO> buscarLojaPorId(@PathVariable Long id) {
+        Optional<LojaDTO> loja = lojaRepository.findDtoById(id);
         return loja.map(ResponseEntity::ok)
                   .orElse(ResponseEntity.notFound().build());
     }
     
     // Buscar loja por ID com categorias
     @GetMapping("/{id}/categorias")
-    public ResponseEntity<Loja> buscarLojaComCategorias(@PathVariable Long id) {
-        Optional<Loja> loja = lojaRepository.findByIdWithCategorias(id);
-        return loja.map(ResponseEntity::ok)
+    public ResponseEntity<LojaComCategoriasDTO> buscarLojaComCategorias(@PathVariable Long id) {
+        Optional<LojaDTO> loja = lojaRepository.findDtoById(id);
+        return loja.map(l -> ResponseEntity.ok(new LojaComCategoriasDTO(l, categoriaRepository.findByLojaId(id))))
                   .orElse(ResponseEntity.notFound().build());
     }
     
     // Criar nova loja
     @PostMapping
-    public ResponseEntity<Loja> criarLoja(@Valid @RequestBody Loja loja) {
+    public ResponseEntity<LojaDTO> criarLoja(@Valid @RequestBody Loja loja) {
         try {
             Loja novaLoja = lojaRepository.save(loja);
             
@@ -60,7 +82,7 @@ public class LojaController {
             categoriaGeral.setLoja(novaLoja);
             categoriaRepository.save(categoriaGeral);
             
-            return ResponseEntity.status(HttpStatus.CREATED).body(novaLoja);
+            return ResponseEntity.status(HttpStatus.CREATED).body(LojaDTO.de(novaLoja));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
         }
@@ -68,7 +90,7 @@ public class LojaController {
     
     // Atualizar loja
     @PutMapping("/{id}")
-    public ResponseEntity<Loja> atualizarLoja(@PathVariable Long id, @Valid @RequestBody Loja lojaAtualizada) {
+    public ResponseEntity<LojaDTO> atualizarLoja(@PathVariable Long id, @Valid @RequestBody Loja lojaAtualizada) {
         Optional<Loja> lojaExistente = lojaRepository.findById(id);
         
         if (lojaExistente.isPresent()) {
@@ -79,7 +101,7 @@ public class LojaController {
             loja.setTelefone(lojaAtualizada.getTelefone());
             
             Loja lojaSalva = lojaRepository.save(loja);
-            return ResponseEntity.ok(lojaSalva);
+            return ResponseEntity.ok(LojaDTO.de(lojaSalva));
         } else {
             return ResponseEntity.notFound().build();
         }
@@ -98,8 +120,8 @@ public class LojaController {
     
     // Buscar lojas por nome
     @GetMapping("/buscar")
-    public ResponseEntity<List<Loja>> buscarLojasPorNome(@RequestParam String nome) {
-        List<Loja> lojas = lojaRepository.findByNomeContainingIgnoreCase(nome);
+    public ResponseEntity<List<LojaDTO>> buscarLojasPorNome(@RequestParam String nome) {
+        List<LojaDTO> lojas = lojaRepository.findByNomeContainingIgnoreCase(nome);
         return ResponseEntity.ok(lojas);
     }
     
@@ -0,0 +1,46 @@
+package com.notasbko.controller;
+
+import com.notasbko.dto.ResultadoItemLote;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Apoio aos endpoints de gravação em lote: limite do payload, validação por item e resposta
+final class Lote {
+
+    static final int LIMITE_MAXIMO = 1000;
+
+    private Lote() {
+    }
+
+    static boolean tamanhoValido(List<?> itens) {
+        return itens != null && !itens.isEmpty() && itens.size() <= LIMITE_MAXIMO;
+    }
+
+    // Validar a entidade montada com as anotações de Bean Validation (null quando não há erros)
+    static String validar(Validator validator, Object entidade) {
+        Set<? extends ConstraintViolation<?>> violacoes = validator.validate(entidade);
+        if (violacoes.isEmpty()) {
+            return null;
+        }
+        return violacoes.stream()
+            .map(ConstraintViolation::getMessage)
+            .sorted()
+            .collect(Collectors.joining("; "));
+    }
+
+    // 200 quando algum item foi gravado; 400 quando todos falharam (o corpo traz o resultado de cada item)
+    static ResponseEntity<List<ResultadoItemLote>> resposta(ResultadoItemLote[] resultados) {
+        List<ResultadoItemLote> lista = Arrays.asList(resultados);
+        boolean algumGravado = lista.stream()
+            .filter(Objects::nonNull)
+            .anyMatch(r -> !ResultadoItemLote.ERRO.equals(r.status()));
+        return algumGravado ? ResponseEntity.ok(lista) : ResponseEntity.badRequest().body(lista);
+    }
+}
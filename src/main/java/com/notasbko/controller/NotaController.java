@@ -1,23 +1,49 @@
 package com.notasbko.controller;
 
+import com.notasbko.dto.FiltroNotas;
+import com.notasbko.dto.NotaComLembretesDTO;
+import com.notasbko.dto.NotaDTO;
+import com.notasbko.dto.NotaParcialDTO;
+import com.notasbko.dto.ResultadoItemLote;
 import com.notasbko.entity.Categoria;
 import com.notasbko.entity.Nota;
 import com.notasbko.entity.Nota.StatusNota;
 import com.notasbko.repository.CategoriaRepository;
+import com.notasbko.repository.LembreteRepository;
 import com.notasbko.repository.NotaRepository;
+import com.notasbko.service.ConsultaFiltrada;
+import com.notasbko.service.ExportadorDados;
+import com.notasbko.service.LembretesEmMassa;
+import com.notasbko.service.NotaIndiceBusca;
+import com.notasbko.service.ProjecaoNotas;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/notas")
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", exposedHeaders = {Cursor.HEADER_PROXIMO, HttpHeaders.ETAG})
 public class NotaController {
     
     @Autowired
@@ -26,46 +52,189 @@ public class NotaController {
     @Autowired
     private CategoriaRepository categoriaRepository;
     
-    // Listar todas as notas
+    @Autowired
+    private LembreteRepository lembreteRepository;
+    
+    @Autowired
+    private NotaIndiceBusca notaIndiceBusca;
+    
+    @Autowired
+    private Validator validator;
+    
+    @Autowired
+    private ExportadorDados exportadorDados;
+    
+    @Autowired
+    private LembretesEmMassa lembretesEmMassa;
+    
+    @Autowired
+    private ProjecaoNotas projecaoNotas;
+    
+    @Autowired
+    private ConsultaFiltrada consultaFiltrada;
+    
+    // Listar todas as notas (paginado por cursor quando limit/cursor são informados; fields/view restringem os campos)
     @GetMapping
-    public ResponseEntity<List<Nota>> listarNotas() {
-        List<Nota> notas = notaRepository.findAllByOrderByDataNotaDesc();
-        return ResponseEntity.ok(notas);
+    public ResponseEntity<? extends List<?>> listarNotas(@RequestParam(required = false) Integer limit,
+                                                      @RequestParam(required = false) String cursor,
+                                                      @RequestParam(required = false) String fields,
+                                                      @RequestParam(required = false) String view) {
+        if (fields != null || view != null) {
+            return listarParcial(null, limit, cursor, fields, view);
+        }
+        
+        if (limit == null && cursor == null) {
+            List<NotaDTO> notas = notaRepository.findAllByOrderByDataNotaDesc();
+            return ResponseEntity.ok(notas);
+        }
+        
+        try {
+            int tamanho = Cursor.limiteValido(limit);
+            List<NotaDTO> notas;
+            if (cursor == null) {
+                notas = notaRepository.findPrimeiraPagina(Cursor.limiteConsulta(tamanho));
+            } else {
+                Cursor atual = Cursor.decode(cursor);
+                notas = notaRepository.findPaginaApos(atual.getChaveComoData(), atual.getId(), Cursor.limiteConsulta(tamanho));
+            }
+            return Cursor.pagina(notas, tamanho, this::cursorDe);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
     
     // Listar notas por categoria
     @GetMapping("/categoria/{categoriaId}")
-    public ResponseEntity<List<Nota>> listarNotasPorCategoria(@PathVariable Long categoriaId) {
-        List<Nota> notas = notaRepository.findByCategoriaIdOrderByDataNotaDesc(categoriaId);
-        return ResponseEntity.ok(notas);
+    public ResponseEntity<? extends List<?>> listarNotasPorCategoria(@PathVariable Long categoriaId,
+                                                                  @RequestParam(required = false) Integer limit,
+                                                                  @RequestParam(required = false) String cursor,
+                                                                  @RequestParam(required = false) String fields,
+                                                                  @RequestParam(required = false) String view) {
+        if (fields != null || view != null) {
+            return listarParcial(categoriaId, limit, cursor, fields, view);
+        }
+        
+        if (limit == null && cursor == null) {
+            List<NotaDTO> notas = notaRepository.findByCategoriaIdOrderByDataNotaDesc(categoriaId);
+            return ResponseEntity.ok(notas);
+        }
+        
+        try {
+            int tamanho = Cursor.limiteValido(limit);
+            List<NotaDTO> notas;
+            if (cursor == null) {
+                notas = notaRepository.findPrimeiraPaginaPorCategoria(categoriaId, Cursor.limiteConsulta(tamanho));
+            } else {
+                Cursor atual = Cursor.decode(cursor);
+                notas = notaRepository.findPaginaPorCategoriaApos(categoriaId, atual.getChaveComoData(), atual.getId(),
+                    Cursor.limiteConsulta(tamanho));
+            }
+            return Cursor.pagina(notas, tamanho, this::cursorDe);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
     
     // Listar notas por loja
     @GetMapping("/loja/{lojaId}")
-    public ResponseEntity<List<Nota>> listarNotasPorLoja(@PathVariable Long lojaId) {
-        List<Nota> notas = notaRepository.findByLojaId(lojaId);
-        return ResponseEntity.ok(notas);
+    public ResponseEntity<List<NotaDTO>> listarNotasPorLoja(@PathVariable Long lojaId,
+                                                         @RequestParam(required = false) Integer limit,
+                                                         @RequestParam(required = false) String cursor,
+                                                         WebRequest request) {
+        // 304 quando o cliente já tem a versão atual da listagem, sem carregá-la
+        if (Versao.naoModificado(request, notaRepository.findVersaoPorLoja(lojaId))) {
+            return null;
+        }
+        
+        if (limit == null && cursor == null) {
+            List<NotaDTO> notas = notaRepository.findByLojaId(lojaId);
+            return ResponseEntity.ok(notas);
+        }
+        
+        try {
+            int tamanho = Cursor.limiteValido(limit);
+            List<NotaDTO> notas;
+            if (cursor == null) {
+                notas = notaRepository.findPrimeiraPaginaPorLoja(lojaId, Cursor.limiteConsulta(tamanho));
+            } else {
+                Cursor atual = Cursor.decode(cursor);
+                notas = notaRepository.findPaginaPorLojaApos(lojaId, atual.getChaveComoData(), atual.getId(),
+                    Cursor.limiteConsulta(tamanho));
+            }
+            return Cursor.pagina(notas, tamanho, this::cursorDe);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    // Consulta combinada: qualquer subconjunto dos filtros (texto no título/anotações, status, loja, categoria e
+    // período de dataNota), ordenada por sort=campo[,asc|desc] e paginada por cursor num único SELECT; view=resumo
+    // deixa de fora as anotacoes
+    @GetMapping("/query")
+    public ResponseEntity<List<NotaDTO>> consultarNotas(@RequestParam(required = false) String texto,
+                                                     @RequestParam(required = false) StatusNota status,
+                                                     @RequestParam(required = false) Long lojaId,
+                                                     @RequestParam(required = false) Long categoriaId,
+                                                     @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime de,
+                                                     @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime ate,
+                                                     @RequestParam(required = false) String sort,
+                                                     @RequestParam(required = false) Integer limit,
+                                                     @RequestParam(required = false) String cursor,
+                                                     @RequestParam(required = false) String view) {
+        try {
+            if (view != null && !view.equals(ProjecaoNotas.VISAO_RESUMO)) {
+                throw new IllegalArgumentException("Visão desconhecida: " + view);
+            }
+            ConsultaFiltrada.Ordenacao ordenacao = ConsultaFiltrada.ordenacaoNotas(sort);
+            int tamanho = Cursor.limiteValido(limit);
+            Cursor atual = cursor != null ? Cursor.decode(cursor) : null;
+            List<NotaDTO> notas = consultaFiltrada.notas(new FiltroNotas(texto, status, lojaId, categoriaId, de, ate),
+                view != null, ordenacao, atual != null ? atual.getChave() : null, atual != null ? atual.getId() : null,
+                tamanho + 1);
+            return Cursor.pagina(notas, tamanho,
+                nota -> Cursor.encode(ConsultaFiltrada.chaveCursor(ordenacao, nota), nota.id()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    // Exportar notas (todos ou de uma loja) em NDJSON ou CSV, transmitidos enquanto são lidos do banco
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportarNotas(@RequestParam(required = false) Long lojaId,
+                                                               @RequestParam(defaultValue = "ndjson") String formato) {
+        ExportadorDados.Formato tipo;
+        try {
+            tipo = ExportadorDados.Formato.de(formato);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        
+        StreamingResponseBody corpo = saida -> exportadorDados.exportarNotas(lojaId, tipo, saida);
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(tipo.getContentType()))
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"notas." + tipo.getExtensao() + "\"")
+            .body(corpo);
     }
     
     // Buscar nota por ID
     @GetMapping("/{id}")
-    public ResponseEntity<Nota> buscarNotaPorId(@PathVariable Long id) {
-        Optional<Nota> nota = notaRepository.findById(id);
+    public ResponseEntity<NotaDTO> buscarNotaPorId(@PathVariable Long id) {
+        Optional<NotaDTO> nota = notaRepository.findDtoById(id);
         return nota.map(ResponseEntity::ok)
                   .orElse(ResponseEntity.notFound().build());
     }
     
     // Buscar nota por ID com lembretes
     @GetMapping("/{id}/lembretes")
-    public ResponseEntity<Nota> buscarNotaComLembretes(@PathVariable Long id) {
-        Optional<Nota> nota = notaRepository.findByIdWithLembretes(id);
-        return nota.map(ResponseEntity::ok)
+    public ResponseEntity<NotaComLembretesDTO> buscarNotaComLembretes(@PathVariable Long id) {
+        Optional<NotaDTO> nota = notaRepository.findDtoById(id);
+        return nota.map(n -> ResponseEntity.ok(new NotaComLembretesDTO(n, lembreteRepository.findByNotaId(id))))
                   .orElse(ResponseEntity.notFound().build());
     }
     
     // Criar nova nota
     @PostMapping
-    public ResponseEntity<Nota> criarNota(@Valid @RequestBody NotaRequest request) {
+    public ResponseEntity<NotaDTO> criarNota(@Valid @RequestBody NotaRequest request) {
         Optional<Categoria> categoria = categoriaRepository.findById(request.getCategoriaId());
         
         if (categoria.isEmpty()) {
@@ -87,7 +256,7 @@ public class NotaController {
             }
             
             Nota novaNota = notaRepository.save(nota);
-            return ResponseEntity.status(HttpStatus.CREATED).body(novaNota);
+            return ResponseEntity.status(HttpStatus.CREATED).body(NotaDTO.de(novaNota));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
         }
@@ -95,7 +264,8 @@ public class NotaController {
     
     // Atualizar nota
     @PutMapping("/{id}")
-    public ResponseEntity<Nota> atualizarNota(@PathVariable Long id, @Valid @RequestBody NotaRequest request) {
+    @Transactional
+    public ResponseEntity<NotaDTO> atualizarNota(@PathVariable Long id, @Valid @RequestBody NotaRequest request) {
         Optional<Nota> notaExistente = notaRepository.findById(id);
         
         if (notaExistente.isEmpty()) {
@@ -103,6 +273,17 @@ public class NotaController {
         }
         
         Nota nota = notaExistente.get();
+        Long lojaAnterior = nota.getLojaId();
+        
+        // Mover a nota de categoria (e, com ela, possivelmente de loja)
+        if (request.getCategoriaId() != null && !request.getCategoriaId().equals(nota.getCategoria().getId())) {
+            Optional<Categoria> categoria = categoriaRepository.findById(request.getCategoriaId());
+            if (categoria.isEmpty()) {
+                return ResponseEntity.badRequest().build();
+            }
+            nota.setCategoria(categoria.get());
+        }
+        
         nota.setTitulo(request.getTitulo());
         nota.setAnotacoes(request.getAnotacoes());
         
@@ -114,8 +295,104 @@ public class NotaController {
             nota.setStatus(request.getStatus());
         }
         
-        Nota notaSalva = notaRepository.save(nota);
-        return ResponseEntity.ok(notaSalva);
+        Nota notaSalva = notaRepository.saveAndFlush(nota);
+        if (!Objects.equals(lojaAnterior, notaSalva.getLojaId())) {
+            lembretesEmMassa.sincronizarLoja(List.of(id));
+        }
+        return ResponseEntity.ok(NotaDTO.de(notaSalva));
+    }
+    
+    // Criar/atualizar notas em lote: itens com id atualizam a nota existente (e a movem de categoria se categoriaId
+    // for informado), os demais criam uma nova.
+    // O payload inteiro é validado antes de gravar; os INSERTs/UPDATEs saem em batch no flush.
+    @PostMapping("/batch")
+    @Transactional
+    public ResponseEntity<List<ResultadoItemLote>> salvarNotasEmLote(@RequestBody List<NotaLoteRequest> itens) {
+        if (!Lote.tamanhoValido(itens)) {
+            return ResponseEntity.badRequest().build();
+        }
+        
+        // Resolver categorias e notas referenciadas com uma consulta IN cada
+        Set<Long> categoriaIds = new HashSet<>();
+        Set<Long> notaIds = new HashSet<>();
+        for (NotaLoteRequest item : itens) {
+            if (item == null) {
+                continue;
+            }
+            if (item.getId() != null) {
+                notaIds.add(item.getId());
+            }
+            if (item.getCategoriaId() != null) {
+                categoriaIds.add(item.getCategoriaId());
+            }
+        }
+        Map<Long, Categoria> categorias = new HashMap<>();
+        categoriaRepository.findAllById(categoriaIds).forEach(c -> categorias.put(c.getId(), c));
+        Map<Long, Nota> existentes = new HashMap<>();
+        if (!notaIds.isEmpty()) {
+            notaRepository.findAllComCategoriaByIdIn(notaIds).forEach(n -> existentes.put(n.getId(), n));
+        }
+        
+        ResultadoItemLote[] resultados = new ResultadoItemLote[itens.size()];
+        Map<Integer, Nota> gravadas = new LinkedHashMap<>();
+        Map<Long, Long> lojasAnteriores = new HashMap<>();
+        List<Nota> novas = new ArrayList<>();
+        for (int i = 0; i < itens.size(); i++) {
+            NotaLoteRequest item = itens.get(i);
+            if (item == null) {
+                resultados[i] = ResultadoItemLote.erro(i, null, "Item vazio");
+                continue;
+            }
+            
+            Nota nota = item.getId() != null ? existentes.get(item.getId()) : null;
+            Categoria categoria = item.getCategoriaId() != null ? categorias.get(item.getCategoriaId()) : null;
+            if (item.getId() != null && nota == null) {
+                resultados[i] = ResultadoItemLote.erro(i, item.getId(), "Nota não encontrada");
+                continue;
+            }
+            if ((item.getId() == null || item.getCategoriaId() != null) && categoria == null) {
+                resultados[i] = ResultadoItemLote.erro(i, item.getId(), "Categoria não encontrada");
+                continue;
+            }
+            
+            // Validar numa cópia para não sujar a entidade gerenciada com dados inválidos
+            Nota candidata = new Nota();
+            candidata.setCategoria(categoria != null ? categoria : nota.getCategoria());
+            preencher(candidata, item);
+            String erro = Lote.validar(validator, candidata);
+            if (erro != null) {
+                resultados[i] = ResultadoItemLote.erro(i, item.getId(), erro);
+                continue;
+            }
+            
+            if (nota != null) {
+                lojasAnteriores.putIfAbsent(nota.getId(), nota.getLojaId());
+                nota.setCategoria(candidata.getCategoria());
+                preencher(nota, item);
+                gravadas.put(i, nota);
+            } else {
+                novas.add(candidata);
+                gravadas.put(i, candidata);
+            }
+        }
+        
+        try {
+            notaRepository.saveAll(novas);
+            notaRepository.flush();
+            
+            // Notas que mudaram de loja levam junto o loja_id dos seus lembretes
+            List<Long> movidas = lojasAnteriores.entrySet().stream()
+                .filter(anterior -> !Objects.equals(anterior.getValue(), existentes.get(anterior.getKey()).getLojaId()))
+                .map(Map.Entry::getKey)
+                .toList();
+            lembretesEmMassa.sincronizarLoja(movidas);
+        } catch (Exception e) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+        
+        gravadas.forEach((i, nota) -> resultados[i] = ResultadoItemLote.sucesso(i, nota.getId(), itens.get(i).getId() == null));
+        return Lote.resposta(resultados);
     }
     
     // Excluir nota
@@ -129,24 +406,34 @@ public class NotaController {
         }
     }
     
-    // Buscar notas por texto (título ou anotações)
+    // Buscar notas por texto (título ou anotações) no índice invertido, ordenadas por relevância
     @GetMapping("/buscar")
-    public ResponseEntity<List<Nota>> buscarNotasPorTexto(@RequestParam String texto) {
-        List<Nota> notas = notaRepository.findByTituloOrAnotacoesContaining(texto);
+    public ResponseEntity<List<NotaDTO>> buscarNotasPorTexto(@RequestParam String texto,
+                                                          @RequestParam(required = false) Long lojaId,
+                                                          @RequestParam(required = false) StatusNota status,
+                                                          @RequestParam(required = false) Integer limit) {
+        List<Long> ids = notaIndiceBusca.buscar(texto, lojaId, status, Cursor.limiteValido(limit));
+        if (ids.isEmpty()) {
+            return ResponseEntity.ok(List.of());
+        }
+        
+        Map<Long, NotaDTO> porId = new HashMap<>();
+        notaRepository.findDtosByIdIn(ids).forEach(nota -> porId.put(nota.id(), nota));
+        List<NotaDTO> notas = ids.stream().map(porId::get).filter(Objects::nonNull).toList();
         return ResponseEntity.ok(notas);
     }
     
     // Filtrar notas por status
     @GetMapping("/status/{status}")
-    public ResponseEntity<List<Nota>> filtrarNotasPorStatus(@PathVariable StatusNota status) {
-        List<Nota> notas = notaRepository.findByStatus(status);
+    public ResponseEntity<List<NotaDTO>> filtrarNotasPorStatus(@PathVariable StatusNota status) {
+        List<NotaDTO> notas = notaRepository.findByStatus(status);
         return ResponseEntity.ok(notas);
     }
     
     // Filtrar notas por status e loja
     @GetMapping("/status/{status}/loja/{lojaId}")
-    public ResponseEntity<List<Nota>> filtrarNotasPorStatusELoja(@PathVariable StatusNota status, @PathVariable Long lojaId) {
-        List<Nota> notas = notaRepository.findByStatusAndLojaId(status, lojaId);
+    public ResponseEntity<List<NotaDTO>> filtrarNotasPorStatusELoja(@PathVariable StatusNota status, @PathVariable Long lojaId) {
+        List<NotaDTO> notas = notaRepository.findByStatusAndLojaId(status, lojaId);
         return ResponseEntity.ok(notas);
     }
     
@@ -164,6 +451,42 @@ public class NotaController {
         return ResponseEntity.ok(total);
     }
     
+    private static void preencher(Nota nota, NotaRequest request) {
+        nota.setTitulo(request.getTitulo());
+        nota.setAnotacoes(request.getAnotacoes());
+        
+        if (request.getDataNota() != null) {
+            nota.setDataNota(request.getDataNota());
+        }
+        
+        if (request.getStatus() != null) {
+            nota.setStatus(request.getStatus());
+        }
+    }
+    
+    private String cursorDe(NotaDTO nota) {
+        return Cursor.encode(nota.dataNota(), nota.id());
+    }
+    
+    // Listagem só com os campos pedidos, projetados no SELECT (com a mesma paginação por cursor)
+    private ResponseEntity<List<NotaParcialDTO>> listarParcial(Long categoriaId, Integer limit, String cursor,
+                                                               String fields, String view) {
+        try {
+            List<String> campos = ProjecaoNotas.campos(fields, view);
+            if (limit == null && cursor == null) {
+                return ResponseEntity.ok(projecaoNotas.listar(campos, categoriaId, null, null, null));
+            }
+            
+            int tamanho = Cursor.limiteValido(limit);
+            Cursor atual = cursor == null ? null : Cursor.decode(cursor);
+            List<NotaParcialDTO> notas = projecaoNotas.listar(campos, categoriaId,
+                atual == null ? null : atual.getChaveComoData(), atual == null ? null : atual.getId(), tamanho + 1);
+            return Cursor.pagina(notas, tamanho, nota -> Cursor.encode(nota.dataNota(), nota.id()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
     // Classe interna para request de nota
     public static class NotaRequest {
         private String titulo;
@@ -213,4 +536,17 @@ public class NotaController {
             this.categoriaId = categoriaId;
         }
     }
-}
\ No newline at end of file
+    
+    // Item do lote de notas (id presente = atualização)
+    public static class NotaLoteRequest extends NotaRequest {
+        private Long id;
+        
+        public Long getId() {
+            return id;
+        }
+        
+        public void setId(Long id) {
+            this.id = id;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.notasbko.controller;
+
+import com.notasbko.dto.VersaoColecao;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.context.request.WebRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+// GET condicional: ETag forte a partir da versão da listagem. Quando o cliente já tem a versão atual,
+// checkNotModified marca a resposta como 304 e o controller retorna sem carregar nem serializar a listagem; caso
+// contrário o header é gravado na resposta 200. Não há Last-Modified: a data mais recente da versão recua quando a
+// linha mais nova é excluída, e um If-Modified-Since posterior a ela receberia 304 com a listagem já alterada. A
+// comparação do ETag é por igualdade e não depende de a data só avançar.
+public final class Versao {
+
+    private Versao() {
+    }
+
+    public static boolean naoModificado(WebRequest request, VersaoColecao versao) {
+        if (versao.ultimaAlteracao() == null) {
+            return request.checkNotModified(etag(versao.total() + "-0"));
+        }
+        Instant alteracao = versao.ultimaAlteracao().atZone(ZoneId.systemDefault()).toInstant();
+        // Microssegundos no ETag: duas alterações no mesmo milissegundo ainda geram versões diferentes
+        long micros = TimeUnit.SECONDS.toMicros(alteracao.getEpochSecond()) + alteracao.getNano() / 1_000;
+        return request.checkNotModified(etag(versao.total() + "-" + Long.toHexString(micros)));
+    }
+
+    // Visões calculadas (contadores do dashboard): ETag pelo conteúdo
+    public static boolean naoModificado(WebRequest request, Map<String, Object> conteudo) {
+        byte[] bytes = new TreeMap<>(conteudo).toString().getBytes(StandardCharsets.UTF_8);
+        return request.checkNotModified(etag(DigestUtils.md5DigestAsHex(bytes)));
+    }
+
+    private static String etag(String valor) {
+        return "\"" + valor + "\"";
+    }
+}
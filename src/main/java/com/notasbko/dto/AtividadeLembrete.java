@@ -0,0 +1,7 @@
+package com.notasbko.dto;
+
+import java.time.LocalDateTime;
+
+// Resumo de um lembrete para o feed de próximos lembretes
+public record AtividadeLembrete(Long id, String titulo, LocalDateTime dataHoraLembrete, Long notaId, Long lojaId) {
+}
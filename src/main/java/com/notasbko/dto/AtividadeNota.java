@@ -0,0 +1,10 @@
+package com.notasbko.dto;
+
+import com.notasbko.entity.Nota.StatusNota;
+
+import java.time.LocalDateTime;
+
+// Resumo de uma nota para o feed de atividades recentes
+public record AtividadeNota(Long id, String titulo, StatusNota status, LocalDateTime dataNota,
+                            LocalDateTime dataCriacao, Long lojaId) {
+}
@@ -0,0 +1,9 @@
+package com.notasbko.dto;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+
+import java.util.List;
+
+// Categoria com suas notas (campos da categoria no mesmo nível da lista)
+public record CategoriaComNotasDTO(@JsonUnwrapped CategoriaDTO categoria, List<NotaDTO> notas) {
+}
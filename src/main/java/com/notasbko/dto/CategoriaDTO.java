@@ -0,0 +1,23 @@
+package com.notasbko.dto;
+
+import com.notasbko.entity.Categoria;
+
+import java.time.LocalDateTime;
+
+// Visão de uma categoria para a API, com a loja achatada
+public record CategoriaDTO(
+    Long id,
+    String nome,
+    String descricao,
+    LocalDateTime dataCriacao,
+    LocalDateTime dataAtualizacao,
+    Long lojaId,
+    String lojaNome
+) {
+    
+    public static CategoriaDTO de(Categoria categoria) {
+        return new CategoriaDTO(categoria.getId(), categoria.getNome(), categoria.getDescricao(),
+            categoria.getDataCriacao(), categoria.getDataAtualizacao(), categoria.getLoja().getId(),
+            categoria.getLoja().getNome());
+    }
+}
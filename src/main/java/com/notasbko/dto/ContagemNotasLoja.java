@@ -0,0 +1,7 @@
+package com.notasbko.dto;
+
+import com.notasbko.entity.Nota.StatusNota;
+
+// Linha da agregação (loja, status, quantidade); status é nulo para lojas sem notas
+public record ContagemNotasLoja(Long lojaId, String lojaNome, StatusNota status, Long total) {
+}
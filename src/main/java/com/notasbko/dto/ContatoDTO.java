@@ -0,0 +1,28 @@
+package com.notasbko.dto;
+
+import com.notasbko.entity.Contato;
+import com.notasbko.entity.Contato.Cargo;
+
+import java.time.LocalDateTime;
+
+// Visão de um contato para a API, com a loja achatada
+public record ContatoDTO(
+    Long id,
+    String nome,
+    String matricula,
+    Cargo cargo,
+    String telefone,
+    String email,
+    String observacoes,
+    Long lojaId,
+    String lojaNome,
+    LocalDateTime dataCriacao,
+    LocalDateTime dataAtualizacao
+) {
+    
+    public static ContatoDTO de(Contato contato) {
+        return new ContatoDTO(contato.getId(), contato.getNome(), contato.getMatricula(), contato.getCargo(),
+            contato.getTelefone(), contato.getEmail(), contato.getObservacoes(), contato.getLoja().getId(),
+            contato.getLoja().getNome(), contato.getDataCriacao(), contato.getDataAtualizacao());
+    }
+}
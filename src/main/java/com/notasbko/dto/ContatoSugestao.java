@@ -0,0 +1,7 @@
+package com.notasbko.dto;
+
+import com.notasbko.entity.Contato.Cargo;
+
+// Item do autocomplete de contatos, montado só com os dados guardados no índice em memória
+public record ContatoSugestao(Long id, String nome, String email, String matricula, Cargo cargo, Long lojaId) {
+}
@@ -0,0 +1,17 @@
+package com.notasbko.dto;
+
+// Estatísticas agregadas de uma loja, calculadas em uma única consulta
+public record EstatisticasLoja(
+    Long lojaId,
+    String lojaNome,
+    Long totalCategorias,
+    Long totalNotas,
+    Long notasPendentes,
+    Long notasEmAndamento,
+    Long notasConcluidas,
+    Long totalLembretes,
+    Long lembretesAtivos,
+    Long lembretesProximos,
+    Long lembretesVencidos
+) {
+}
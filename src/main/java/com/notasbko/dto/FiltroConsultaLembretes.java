@@ -0,0 +1,9 @@
+package com.notasbko.dto;
+
+import java.time.LocalDateTime;
+
+// Filtros da consulta combinada de lembretes; os informados são combinados com AND
+// (dataHoraLembrete entre de e ate, inclusive)
+public record FiltroConsultaLembretes(String texto, Long lojaId, Long notaId, Boolean ativo, Boolean notificado,
+                                      LocalDateTime de, LocalDateTime ate) {
+}
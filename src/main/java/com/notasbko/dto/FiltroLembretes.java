@@ -0,0 +1,12 @@
+package com.notasbko.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Seleção de lembretes das operações em massa: lista de ids e/ou filtros (combinados com AND)
+public record FiltroLembretes(List<Long> ids, Long lojaId, Long notaId, LocalDateTime vencidosAntes) {
+    
+    public boolean vazio() {
+        return (ids == null || ids.isEmpty()) && lojaId == null && notaId == null && vencidosAntes == null;
+    }
+}
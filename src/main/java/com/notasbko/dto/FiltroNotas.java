@@ -0,0 +1,10 @@
+package com.notasbko.dto;
+
+import com.notasbko.entity.Nota.StatusNota;
+
+import java.time.LocalDateTime;
+
+// Filtros da consulta combinada de notas; os informados são combinados com AND (dataNota entre de e ate, inclusive)
+public record FiltroNotas(String texto, StatusNota status, Long lojaId, Long categoriaId, LocalDateTime de,
+                          LocalDateTime ate) {
+}
@@ -0,0 +1,29 @@
+package com.notasbko.dto;
+
+import com.notasbko.entity.Lembrete;
+import com.notasbko.entity.Nota;
+
+import java.time.LocalDateTime;
+
+// Visão de um lembrete para a API, com a nota e a loja achatadas
+public record LembreteDTO(
+    Long id,
+    String titulo,
+    String descricao,
+    LocalDateTime dataHoraLembrete,
+    Boolean ativo,
+    Boolean notificado,
+    LocalDateTime dataCriacao,
+    LocalDateTime dataAtualizacao,
+    Long notaId,
+    String notaTitulo,
+    Long lojaId
+) {
+    
+    public static LembreteDTO de(Lembrete lembrete) {
+        Nota nota = lembrete.getNota();
+        return new LembreteDTO(lembrete.getId(), lembrete.getTitulo(), lembrete.getDescricao(),
+            lembrete.getDataHoraLembrete(), lembrete.getAtivo(), lembrete.getNotificado(), lembrete.getDataCriacao(),
+            lembrete.getDataAtualizacao(), nota.getId(), nota.getTitulo(), lembrete.getLojaId());
+    }
+}
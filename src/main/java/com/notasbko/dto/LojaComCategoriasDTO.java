@@ -0,0 +1,9 @@
+package com.notasbko.dto;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+
+import java.util.List;
+
+// Loja com suas categorias (campos da loja no mesmo nível da lista)
+public record LojaComCategoriasDTO(@JsonUnwrapped LojaDTO loja, List<CategoriaDTO> categorias) {
+}
@@ -0,0 +1,22 @@
+package com.notasbko.dto;
+
+import com.notasbko.entity.Loja;
+
+import java.time.LocalDateTime;
+
+// Visão de uma loja para a API, sem a coleção de categorias
+public record LojaDTO(
+    Long id,
+    String nome,
+    String descricao,
+    String endereco,
+    String telefone,
+    LocalDateTime dataCriacao,
+    LocalDateTime dataAtualizacao
+) {
+    
+    public static LojaDTO de(Loja loja) {
+        return new LojaDTO(loja.getId(), loja.getNome(), loja.getDescricao(), loja.getEndereco(), loja.getTelefone(),
+            loja.getDataCriacao(), loja.getDataAtualizacao());
+    }
+}
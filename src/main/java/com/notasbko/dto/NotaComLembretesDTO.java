@@ -0,0 +1,9 @@
+package com.notasbko.dto;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+
+import java.util.List;
+
+// Nota com seus lembretes (campos da nota no mesmo nível da lista)
+public record NotaComLembretesDTO(@JsonUnwrapped NotaDTO nota, List<LembreteDTO> lembretes) {
+}
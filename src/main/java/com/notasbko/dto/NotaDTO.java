@@ -0,0 +1,30 @@
+package com.notasbko.dto;
+
+import com.notasbko.entity.Categoria;
+import com.notasbko.entity.Nota;
+import com.notasbko.entity.Nota.StatusNota;
+
+import java.time.LocalDateTime;
+
+// Visão de uma nota para a API, com categoria e loja achatadas
+public record NotaDTO(
+    Long id,
+    String titulo,
+    LocalDateTime dataNota,
+    String anotacoes,
+    StatusNota status,
+    LocalDateTime dataCriacao,
+    LocalDateTime dataAtualizacao,
+    Long categoriaId,
+    String categoriaNome,
+    Long lojaId,
+    String lojaNome
+) {
+    
+    public static NotaDTO de(Nota nota) {
+        Categoria categoria = nota.getCategoria();
+        return new NotaDTO(nota.getId(), nota.getTitulo(), nota.getDataNota(), nota.getAnotacoes(), nota.getStatus(),
+            nota.getDataCriacao(), nota.getDataAtualizacao(), categoria.getId(), categoria.getNome(),
+            categoria.getLoja().getId(), categoria.getLoja().getNome());
+    }
+}
@@ -0,0 +1,16 @@
+package com.notasbko.dto;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+// Nota com somente os campos pedidos (fields=/view=); id e dataNota são lidos sempre para montar o cursor,
+// mas o JSON traz apenas os campos selecionados
+public record NotaParcialDTO(Long id, LocalDateTime dataNota, Map<String, Object> campos) {
+    
+    @JsonValue
+    public Map<String, Object> campos() {
+        return campos;
+    }
+}
@@ -0,0 +1,17 @@
+package com.notasbko.dto;
+
+// Resultado de um item de uma operação em lote (indice = posição no payload)
+public record ResultadoItemLote(int indice, Long id, String status, String erro) {
+    
+    public static final String CRIADO = "CRIADO";
+    public static final String ATUALIZADO = "ATUALIZADO";
+    public static final String ERRO = "ERRO";
+    
+    public static ResultadoItemLote sucesso(int indice, Long id, boolean criado) {
+        return new ResultadoItemLote(indice, id, criado ? CRIADO : ATUALIZADO, null);
+    }
+    
+    public static ResultadoItemLote erro(int indice, Long id, String erro) {
+        return new ResultadoItemLote(indice, id, ERRO, erro);
+    }
+}
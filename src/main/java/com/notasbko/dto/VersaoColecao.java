@@ -0,0 +1,27 @@
+package com.notasbko.dto;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+// Versão de uma listagem: quantidade de linhas e a data de criação/atualização mais recente entre as tabelas
+// que compõem a visão (exclusões mudam a quantidade; inclusões e alterações mudam a data)
+public record VersaoColecao(long total, LocalDateTime ultimaAlteracao) {
+    
+    public VersaoColecao(Long total, LocalDateTime ultimaAlteracao) {
+        this(total != null ? total : 0L, ultimaAlteracao, null);
+    }
+    
+    // Visões com dados de tabelas relacionadas (nomes de categoria e loja achatados no DTO)
+    public VersaoColecao(Long total, LocalDateTime ultimaAlteracao, LocalDateTime alteracaoRelacionada) {
+        this(total != null ? total : 0L, ultimaAlteracao, alteracaoRelacionada, null);
+    }
+    
+    public VersaoColecao(Long total, LocalDateTime ultimaAlteracao, LocalDateTime alteracaoRelacionada,
+                         LocalDateTime outraAlteracaoRelacionada) {
+        this(total != null ? total : 0L, Stream.of(ultimaAlteracao, alteracaoRelacionada, outraAlteracaoRelacionada)
+            .filter(Objects::nonNull)
+            .max(LocalDateTime::compareTo)
+            .orElse(null));
+    }
+}
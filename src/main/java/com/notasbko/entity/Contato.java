@@ -1,10 +1,12 @@
 package com.notasbko.entity;
 
+import com.notasbko.service.ContatoIndiceListener;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "contatos")
+@EntityListeners(ContatoIndiceListener.class)
 public class Contato {
     
     @Id
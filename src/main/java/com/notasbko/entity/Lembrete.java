@@ -1,5 +1,8 @@
 package com.notasbko.entity;
 
+import com.notasbko.service.AgendadorLembretesListener;
+import com.notasbko.service.AtividadesRecentesListener;
+import com.notasbko.service.CanalLembretesListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
@@ -7,10 +10,13 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "lembretes")
+@EntityListeners({AtividadesRecentesListener.class, AgendadorLembretesListener.class, CanalLembretesListener.class})
 public class Lembrete {
     
+    // Sequência com otimizador pooled (ids reservados em blocos) para permitir batch de INSERT no JDBC
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "lembretes_seq")
+    @SequenceGenerator(name = "lembretes_seq", sequenceName = "lembretes_seq", allocationSize = 50)
     private Long id;
     
     @Size(max = 200, message = "Título deve ter no máximo 200 caracteres")
@@ -41,6 +47,11 @@ public class Lembrete {
     @JoinColumn(name = "nota_id", nullable = false)
     private Nota nota;
     
+    // Loja da nota, repetida no lembrete para filtrar por loja sem join (sincronizada em prePersist/preUpdate
+    // e, quando a nota muda de categoria, por UPDATE em massa)
+    @Column(name = "loja_id", nullable = false)
+    private Long lojaId;
+    
     // Constructors
     public Lembrete() {
         this.dataCriacao = LocalDateTime.now();
@@ -129,9 +140,25 @@ public class Lembrete {
         this.nota = nota;
     }
     
+    public Long getLojaId() {
+        return lojaId;
+    }
+    
+    @PrePersist
+    public void prePersist() {
+        sincronizarLoja();
+    }
+    
     @PreUpdate
     public void preUpdate() {
         this.dataAtualizacao = LocalDateTime.now();
+        sincronizarLoja();
+    }
+    
+    private void sincronizarLoja() {
+        if (nota != null) {
+            this.lojaId = nota.getLojaId();
+        }
     }
     
     // Método utilitário para verificar se o lembrete está próximo
@@ -3,12 +3,18 @@ package com.notasbko.entity;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
 @Table(name = "lojas")
+// Cache de segundo nível (região em application.conf). A coleção de categorias fica fora do cache:
+// categorias são gravadas pelo lado da Categoria e não invalidariam a coleção da loja
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "lojas")
 public class Loja {
     
     @Id
@@ -1,5 +1,7 @@
 package com.notasbko.entity;
 
+import com.notasbko.service.AtividadesRecentesListener;
+import com.notasbko.service.NotaIndiceListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
@@ -9,10 +11,13 @@ import java.util.List;
 
 @Entity
 @Table(name = "notas")
+@EntityListeners({NotaIndiceListener.class, AtividadesRecentesListener.class})
 public class Nota {
     
+    // Sequência com otimizador pooled (ids reservados em blocos) para permitir batch de INSERT no JDBC
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "notas_seq")
+    @SequenceGenerator(name = "notas_seq", sequenceName = "notas_seq", allocationSize = 50)
     private Long id;
     
     @NotBlank(message = "Título da nota é obrigatório")
@@ -40,6 +45,10 @@ public class Nota {
     @JoinColumn(name = "categoria_id", nullable = false)
     private Categoria categoria;
     
+    // Loja da categoria, repetida na nota para filtrar por loja sem join (sincronizada em prePersist/preUpdate)
+    @Column(name = "loja_id", nullable = false)
+    private Long lojaId;
+    
     @OneToMany(mappedBy = "nota", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Lembrete> lembretes = new ArrayList<>();
     
@@ -139,6 +148,10 @@ public class Nota {
         this.categoria = categoria;
     }
     
+    public Long getLojaId() {
+        return lojaId;
+    }
+    
     public List<Lembrete> getLembretes() {
         return lembretes;
     }
@@ -147,8 +160,20 @@ public class Nota {
         this.lembretes = lembretes;
     }
     
+    @PrePersist
+    public void prePersist() {
+        sincronizarLoja();
+    }
+    
     @PreUpdate
     public void preUpdate() {
         this.dataAtualizacao = LocalDateTime.now();
+        sincronizarLoja();
+    }
+    
+    private void sincronizarLoja() {
+        if (categoria != null) {
+            this.lojaId = categoria.getLoja().getId();
+        }
     }
 }
\ No newline at end of file
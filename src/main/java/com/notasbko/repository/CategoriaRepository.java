@@ -1,25 +1,63 @@
 package com.notasbko.repository;
 
+import com.notasbko.dto.CategoriaDTO;
+import com.notasbko.dto.VersaoColecao;
 import com.notasbko.entity.Categoria;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
 
+import static org.hibernate.jpa.HibernateHints.HINT_CACHEABLE;
+
 @Repository
 public interface CategoriaRepository extends JpaRepository<Categoria, Long> {
     
-    // Buscar categorias por loja
-    List<Categoria> findByLojaId(Long lojaId);
+    // Projeção base das respostas da API: somente as colunas da visão, com a loja achatada
+    String CATEGORIA_DTO = "SELECT new com.notasbko.dto.CategoriaDTO(c.id, c.nome, c.descricao, c.dataCriacao, " +
+                           "c.dataAtualizacao, l.id, l.nome) FROM Categoria c JOIN c.loja l ";
+    
+    // Listar todas as categorias (projeção; resultado guardado no cache de consultas)
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    @Query(CATEGORIA_DTO + "ORDER BY c.id")
+    List<CategoriaDTO> findAllDtos();
+    
+    // Buscar categoria por ID (projeção; resultado guardado no cache de consultas)
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    @Query(CATEGORIA_DTO + "WHERE c.id = :id")
+    Optional<CategoriaDTO> findDtoById(@Param("id") Long id);
+    
+    // Buscar categorias por loja (resultado guardado no cache de consultas)
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    @Query(CATEGORIA_DTO + "WHERE l.id = :lojaId ORDER BY c.id")
+    List<CategoriaDTO> findByLojaId(@Param("lojaId") Long lojaId);
+    
+    // Versão das categorias de uma loja (o nome da loja faz parte da visão); resultado guardado no cache de consultas
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    @Query("SELECT new com.notasbko.dto.VersaoColecao(COUNT(c), MAX(COALESCE(c.dataAtualizacao, c.dataCriacao)), " +
+           "(SELECT COALESCE(l.dataAtualizacao, l.dataCriacao) FROM Loja l WHERE l.id = :lojaId)) " +
+           "FROM Categoria c WHERE c.loja.id = :lojaId")
+    VersaoColecao findVersaoPorLoja(@Param("lojaId") Long lojaId);
+    
+    // Paginação por cursor (keyset) em id
+    @Query(CATEGORIA_DTO + "WHERE c.id > :id ORDER BY c.id ASC")
+    List<CategoriaDTO> findByIdGreaterThanOrderByIdAsc(@Param("id") Long id, Limit limit);
+    
+    @Query(CATEGORIA_DTO + "WHERE l.id = :lojaId AND c.id > :id ORDER BY c.id ASC")
+    List<CategoriaDTO> findByLojaIdAndIdGreaterThanOrderByIdAsc(@Param("lojaId") Long lojaId, @Param("id") Long id, Limit limit);
     
     // Buscar categoria por nome e loja
     Optional<Categoria> findByNomeIgnoreCaseAndLojaId(String nome, Long lojaId);
     
     // Buscar categorias que contenham o texto no nome
-    List<Categoria> findByNomeContainingIgnoreCase(String nome);
+    @Query(CATEGORIA_DTO + "WHERE LOWER(c.nome) LIKE LOWER(CONCAT('%', :nome, '%'))")
+    List<CategoriaDTO> findByNomeContainingIgnoreCase(@Param("nome") String nome);
     
     // Buscar categorias por loja com suas notas
     @Query("SELECT DISTINCT c FROM Categoria c LEFT JOIN FETCH c.notas WHERE c.loja.id = :lojaId")
@@ -1,27 +1,58 @@
 package com.notasbko.repository;
 
+import com.notasbko.dto.ContatoDTO;
 import com.notasbko.entity.Contato;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ContatoRepository extends JpaRepository<Contato, Long> {
     
+    // Projeção base das respostas da API: somente as colunas da visão, com a loja achatada
+    String CONTATO_DTO = "SELECT new com.notasbko.dto.ContatoDTO(c.id, c.nome, c.matricula, c.cargo, c.telefone, " +
+                         "c.email, c.observacoes, l.id, l.nome, c.dataCriacao, c.dataAtualizacao) " +
+                         "FROM Contato c JOIN c.loja l ";
+    
+    @Query(CONTATO_DTO + "ORDER BY c.id")
+    List<ContatoDTO> findAllDtos();
+    
+    @Query(CONTATO_DTO + "WHERE c.id = :id")
+    Optional<ContatoDTO> findDtoById(@Param("id") Long id);
+    
     List<Contato> findByLojaId(Long lojaId);
     
-    List<Contato> findByLojaIdOrderByNomeAsc(Long lojaId);
+    @Query(CONTATO_DTO + "WHERE l.id = :lojaId ORDER BY c.nome ASC")
+    List<ContatoDTO> findByLojaIdOrderByNomeAsc(@Param("lojaId") Long lojaId);
+    
+    // Paginação por cursor (keyset) em id e, por loja, em (nome, id)
+    @Query(CONTATO_DTO + "WHERE c.id > :id ORDER BY c.id ASC")
+    List<ContatoDTO> findByIdGreaterThanOrderByIdAsc(@Param("id") Long id, Limit limit);
     
-    List<Contato> findByCargo(Contato.Cargo cargo);
+    @Query(CONTATO_DTO + "WHERE l.id = :lojaId ORDER BY c.nome ASC, c.id ASC")
+    List<ContatoDTO> findPrimeiraPaginaPorLoja(@Param("lojaId") Long lojaId, Limit limit);
     
-    List<Contato> findByLojaIdAndCargo(Long lojaId, Contato.Cargo cargo);
+    @Query(CONTATO_DTO + "WHERE l.id = :lojaId AND (c.nome > :nome OR (c.nome = :nome AND c.id > :id)) ORDER BY c.nome ASC, c.id ASC")
+    List<ContatoDTO> findPaginaPorLojaApos(@Param("lojaId") Long lojaId, @Param("nome") String nome, @Param("id") Long id, Limit limit);
+    
+    @Query(CONTATO_DTO + "WHERE c.cargo = :cargo")
+    List<ContatoDTO> findByCargo(@Param("cargo") Contato.Cargo cargo);
+    
+    @Query(CONTATO_DTO + "WHERE l.id = :lojaId AND c.cargo = :cargo")
+    List<ContatoDTO> findByLojaIdAndCargo(@Param("lojaId") Long lojaId, @Param("cargo") Contato.Cargo cargo);
     
     @Query("SELECT c FROM Contato c WHERE c.loja.id = :lojaId AND (c.nome LIKE %:nome% OR c.email LIKE %:nome%)")
     List<Contato> findByLojaIdAndNomeOrEmailContaining(@Param("lojaId") Long lojaId, @Param("nome") String nome);
     
+    // Carga do índice de autocomplete em lotes de ids crescentes
+    @Query("SELECT c.id, c.nome, c.email, c.matricula, c.cargo, c.loja.id FROM Contato c WHERE c.id > :id ORDER BY c.id")
+    List<Object[]> findDadosIndiceApos(@Param("id") Long id, Limit limit);
+    
     boolean existsByEmailAndLojaId(String email, Long lojaId);
     
     boolean existsByEmailAndLojaIdAndIdNot(String email, Long lojaId, Long id);
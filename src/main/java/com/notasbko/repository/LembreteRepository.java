@@ -1,19 +1,42 @@
 package com.notasbko.repository;
 
+import com.notasbko.dto.AtividadeLembrete;
+import com.notasbko.dto.LembreteDTO;
 import com.notasbko.entity.Lembrete;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface LembreteRepository extends JpaRepository<Lembrete, Long> {
     
+    // Projeção base das respostas da API: somente as colunas da visão, com nota e loja achatadas
+    String LEMBRETE_DTO = "SELECT new com.notasbko.dto.LembreteDTO(l.id, l.titulo, l.descricao, l.dataHoraLembrete, " +
+                          "l.ativo, l.notificado, l.dataCriacao, l.dataAtualizacao, n.id, n.titulo, l.lojaId) " +
+                          "FROM Lembrete l JOIN l.nota n ";
+    
+    String FETCH_SIZE_EXPORTACAO = "500";
+    
+    // Buscar lembrete por ID (projeção)
+    @Query(LEMBRETE_DTO + "WHERE l.id = :id")
+    Optional<LembreteDTO> findDtoById(@Param("id") Long id);
+    
     // Buscar lembretes por nota
-    List<Lembrete> findByNotaId(Long notaId);
+    @Query(LEMBRETE_DTO + "WHERE n.id = :notaId")
+    List<LembreteDTO> findByNotaId(@Param("notaId") Long notaId);
     
     // Buscar lembretes ativos
     List<Lembrete> findByAtivoTrue();
@@ -25,26 +48,54 @@ public interface LembreteRepository extends JpaRepository<Lembrete, Long> {
     List<Lembrete> findByAtivoTrueAndNotificadoFalse();
     
     // Buscar lembretes próximos (próximas 24 horas)
-    @Query("SELECT l FROM Lembrete l WHERE l.ativo = true AND l.notificado = false AND l.dataHoraLembrete BETWEEN :agora AND :limite")
-    List<Lembrete> findLembretesProximos(@Param("agora") LocalDateTime agora, @Param("limite") LocalDateTime limite);
+    @Query(LEMBRETE_DTO + "WHERE l.ativo = true AND l.notificado = false AND l.dataHoraLembrete BETWEEN :agora AND :limite")
+    List<LembreteDTO> findLembretesProximos(@Param("agora") LocalDateTime agora, @Param("limite") LocalDateTime limite);
     
     // Buscar lembretes vencidos (não notificados e data já passou)
-    @Query("SELECT l FROM Lembrete l WHERE l.ativo = true AND l.notificado = false AND l.dataHoraLembrete < :agora")
-    List<Lembrete> findLembretesVencidos(@Param("agora") LocalDateTime agora);
+    @Query(LEMBRETE_DTO + "WHERE l.ativo = true AND l.notificado = false AND l.dataHoraLembrete < :agora")
+    List<LembreteDTO> findLembretesVencidos(@Param("agora") LocalDateTime agora);
+    
+    // Próximos lembretes pendentes, já no formato do feed de atividades
+    @Query("SELECT new com.notasbko.dto.AtividadeLembrete(l.id, l.titulo, l.dataHoraLembrete, l.nota.id, l.lojaId) " +
+           "FROM Lembrete l WHERE l.ativo = true AND l.notificado = false AND l.dataHoraLembrete > :agora " +
+           "ORDER BY l.dataHoraLembrete ASC, l.id ASC")
+    List<AtividadeLembrete> findAtividadesProximas(@Param("agora") LocalDateTime agora, Limit limit);
+    
+    @Query("SELECT new com.notasbko.dto.AtividadeLembrete(l.id, l.titulo, l.dataHoraLembrete, l.nota.id, l.lojaId) " +
+           "FROM Lembrete l WHERE l.lojaId = :lojaId AND l.ativo = true AND l.notificado = false " +
+           "AND l.dataHoraLembrete > :agora AND l.dataHoraLembrete <= :limite ORDER BY l.dataHoraLembrete ASC, l.id ASC")
+    List<AtividadeLembrete> findAtividadesProximasPorLoja(@Param("lojaId") Long lojaId, @Param("agora") LocalDateTime agora,
+                                                          @Param("limite") LocalDateTime limite, Limit limit);
     
     // Buscar lembretes por período
     @Query("SELECT l FROM Lembrete l WHERE l.dataHoraLembrete BETWEEN :dataInicio AND :dataFim")
     List<Lembrete> findByDataHoraLembreteBetween(@Param("dataInicio") LocalDateTime dataInicio, @Param("dataFim") LocalDateTime dataFim);
     
-    // Buscar lembretes por loja (através da nota e categoria)
-    @Query("SELECT l FROM Lembrete l WHERE l.nota.categoria.loja.id = :lojaId")
-    List<Lembrete> findByLojaId(@Param("lojaId") Long lojaId);
+    // Buscar lembretes por loja (pela coluna loja_id do próprio lembrete)
+    @Query(LEMBRETE_DTO + "WHERE l.lojaId = :lojaId")
+    List<LembreteDTO> findByLojaId(@Param("lojaId") Long lojaId);
     
     // Buscar lembretes ordenados por data/hora
-    List<Lembrete> findAllByOrderByDataHoraLembreteAsc();
+    @Query(LEMBRETE_DTO + "ORDER BY l.dataHoraLembrete ASC")
+    List<LembreteDTO> findAllByOrderByDataHoraLembreteAsc();
     
     // Buscar lembretes ativos ordenados por data/hora
-    List<Lembrete> findByAtivoTrueOrderByDataHoraLembreteAsc();
+    @Query(LEMBRETE_DTO + "WHERE l.ativo = true ORDER BY l.dataHoraLembrete ASC")
+    List<LembreteDTO> findByAtivoTrueOrderByDataHoraLembreteAsc();
+    
+    // Paginação por cursor (keyset) em (dataHoraLembrete, id)
+    @Query(LEMBRETE_DTO + "ORDER BY l.dataHoraLembrete ASC, l.id ASC")
+    List<LembreteDTO> findPrimeiraPagina(Limit limit);
+    
+    // A faixa l.dataHoraLembrete >= :dataHora repete o cursor para o H2 começar a leitura do índice nele
+    @Query(LEMBRETE_DTO + "WHERE l.dataHoraLembrete >= :dataHora AND (l.dataHoraLembrete > :dataHora OR (l.dataHoraLembrete = :dataHora AND l.id > :id)) ORDER BY l.dataHoraLembrete ASC, l.id ASC")
+    List<LembreteDTO> findPaginaApos(@Param("dataHora") LocalDateTime dataHora, @Param("id") Long id, Limit limit);
+    
+    @Query(LEMBRETE_DTO + "WHERE l.ativo = true ORDER BY l.dataHoraLembrete ASC, l.id ASC")
+    List<LembreteDTO> findPrimeiraPaginaAtivos(Limit limit);
+    
+    @Query(LEMBRETE_DTO + "WHERE l.ativo = true AND l.dataHoraLembrete >= :dataHora AND (l.dataHoraLembrete > :dataHora OR (l.dataHoraLembrete = :dataHora AND l.id > :id)) ORDER BY l.dataHoraLembrete ASC, l.id ASC")
+    List<LembreteDTO> findPaginaAtivosApos(@Param("dataHora") LocalDateTime dataHora, @Param("id") Long id, Limit limit);
     
     // Contar lembretes ativos
     @Query("SELECT COUNT(l) FROM Lembrete l WHERE l.ativo = true")
@@ -53,4 +104,31 @@ public interface LembreteRepository extends JpaRepository<Lembrete, Long> {
     // Contar lembretes próximos
     @Query("SELECT COUNT(l) FROM Lembrete l WHERE l.ativo = true AND l.notificado = false AND l.dataHoraLembrete BETWEEN :agora AND :limite")
     Long countLembretesProximos(@Param("agora") LocalDateTime agora, @Param("limite") LocalDateTime limite);
-}
\ No newline at end of file
+    
+    // Carregar lembretes com a nota em uma única consulta IN (usado pelo endpoint em lote)
+    @Query("SELECT l FROM Lembrete l JOIN FETCH l.nota WHERE l.id IN :ids")
+    List<Lembrete> findAllComNotaByIdIn(@Param("ids") Collection<Long> ids);
+    
+    // Exportação: leitura forward-only em blocos de FETCH_SIZE_EXPORTACAO linhas; a projeção não entra no contexto de persistência
+    @QueryHints({
+        @QueryHint(name = HINT_FETCH_SIZE, value = FETCH_SIZE_EXPORTACAO),
+        @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query(LEMBRETE_DTO + "WHERE (:lojaId IS NULL OR l.lojaId = :lojaId) ORDER BY l.id")
+    Stream<LembreteDTO> streamParaExportacao(@Param("lojaId") Long lojaId);
+    
+    // Lembretes pendentes (ativos e não notificados) com data/hora até :ate, inclusive os já vencidos, em ordem de
+    // data/hora, para a carga do agendador (idx_lembretes_pendentes)
+    @Query("SELECT new com.notasbko.dto.AtividadeLembrete(l.id, l.titulo, l.dataHoraLembrete, l.nota.id, l.lojaId) " +
+           "FROM Lembrete l WHERE l.ativo = true AND l.notificado = false AND l.dataHoraLembrete <= :ate " +
+           "ORDER BY l.dataHoraLembrete, l.id")
+    List<AtividadeLembrete> findPendentesAte(@Param("ate") LocalDateTime ate, Limit limit);
+    
+    // Os mesmos após o cursor (data/hora, id): próximas páginas e a faixa que entra na roda quando ela avança
+    @Query("SELECT new com.notasbko.dto.AtividadeLembrete(l.id, l.titulo, l.dataHoraLembrete, l.nota.id, l.lojaId) " +
+           "FROM Lembrete l WHERE l.ativo = true AND l.notificado = false AND l.dataHoraLembrete <= :ate " +
+           "AND (l.dataHoraLembrete > :data OR (l.dataHoraLembrete = :data AND l.id > :id)) " +
+           "ORDER BY l.dataHoraLembrete, l.id")
+    List<AtividadeLembrete> findPendentesAteApos(@Param("ate") LocalDateTime ate, @Param("data") LocalDateTime data,
+                                                 @Param("id") Long id, Limit limit);
+}
@@ -1,30 +1,83 @@
 package com.notasbko.repository;
 
+import com.notasbko.dto.EstatisticasLoja;
+import com.notasbko.dto.LojaDTO;
+import com.notasbko.dto.VersaoColecao;
 import com.notasbko.entity.Loja;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
+import static org.hibernate.jpa.HibernateHints.HINT_CACHEABLE;
+
 @Repository
 public interface LojaRepository extends JpaRepository<Loja, Long> {
     
+    // Projeção base das respostas da API: somente as colunas da loja, sem a coleção de categorias
+    String LOJA_DTO = "SELECT new com.notasbko.dto.LojaDTO(l.id, l.nome, l.descricao, l.endereco, l.telefone, " +
+                      "l.dataCriacao, l.dataAtualizacao) FROM Loja l ";
+    
+    // Listar todas as lojas (projeção; resultado guardado no cache de consultas)
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    @Query(LOJA_DTO + "ORDER BY l.id")
+    List<LojaDTO> findAllDtos();
+    
+    // Buscar loja por ID (projeção; resultado guardado no cache de consultas)
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    @Query(LOJA_DTO + "WHERE l.id = :id")
+    Optional<LojaDTO> findDtoById(@Param("id") Long id);
+    
     // Buscar loja por nome (case insensitive)
     Optional<Loja> findByNomeIgnoreCase(String nome);
     
     // Buscar lojas que contenham o texto no nome
-    List<Loja> findByNomeContainingIgnoreCase(String nome);
+    @Query(LOJA_DTO + "WHERE LOWER(l.nome) LIKE LOWER(CONCAT('%', :nome, '%'))")
+    List<LojaDTO> findByNomeContainingIgnoreCase(@Param("nome") String nome);
     
     // Buscar lojas por cidade (assumindo que está no endereço)
     List<Loja> findByEnderecoContainingIgnoreCase(String cidade);
     
+    // Paginação por cursor (keyset) em id
+    @Query(LOJA_DTO + "WHERE l.id > :id ORDER BY l.id ASC")
+    List<LojaDTO> findByIdGreaterThanOrderByIdAsc(@Param("id") Long id, Limit limit);
+    
+    // Versão da listagem de lojas, para o ETag (resultado guardado no cache de consultas)
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    @Query("SELECT new com.notasbko.dto.VersaoColecao(COUNT(l), MAX(COALESCE(l.dataAtualizacao, l.dataCriacao))) FROM Loja l")
+    VersaoColecao findVersao();
+    
     // Contar total de lojas
     @Query("SELECT COUNT(l) FROM Loja l")
     Long countTotalLojas();
     
+    // Estatísticas de categorias, notas e lembretes de um lote de lojas em uma única consulta: notas agrupadas
+    // pelo loja_id da própria nota, categorias e lembretes em subconsultas pelo loja_id (sem passar por categoria/nota)
+    @Query("SELECT new com.notasbko.dto.EstatisticasLoja(lj.id, lj.nome, " +
+           "(SELECT COUNT(c) FROM Categoria c WHERE c.loja.id = lj.id), " +
+           "COUNT(n.id), " +
+           "COUNT(CASE WHEN n.status = 'PENDENTE' THEN n.id END), " +
+           "COUNT(CASE WHEN n.status = 'EM_ANDAMENTO' THEN n.id END), " +
+           "COUNT(CASE WHEN n.status = 'CONCLUIDO' THEN n.id END), " +
+           "(SELECT COUNT(le) FROM Lembrete le WHERE le.lojaId = lj.id), " +
+           "(SELECT COUNT(le) FROM Lembrete le WHERE le.lojaId = lj.id AND le.ativo = true), " +
+           "(SELECT COUNT(le) FROM Lembrete le WHERE le.lojaId = lj.id AND le.ativo = true AND le.notificado = false " +
+           "AND le.dataHoraLembrete BETWEEN :agora AND :limite), " +
+           "(SELECT COUNT(le) FROM Lembrete le WHERE le.lojaId = lj.id AND le.ativo = true AND le.notificado = false " +
+           "AND le.dataHoraLembrete < :agora)) " +
+           "FROM Loja lj LEFT JOIN Nota n ON n.lojaId = lj.id " +
+           "WHERE lj.id IN :lojaIds GROUP BY lj.id, lj.nome")
+    List<EstatisticasLoja> findEstatisticas(@Param("lojaIds") List<Long> lojaIds,
+                                            @Param("agora") LocalDateTime agora,
+                                            @Param("limite") LocalDateTime limite);
+    
     // Buscar lojas com suas categorias
     @Query("SELECT DISTINCT l FROM Loja l LEFT JOIN FETCH l.categorias")
     List<Loja> findAllWithCategorias();
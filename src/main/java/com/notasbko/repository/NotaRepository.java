@@ -1,28 +1,63 @@
 package com.notasbko.repository;
 
+import com.notasbko.dto.AtividadeNota;
+import com.notasbko.dto.ContagemNotasLoja;
+import com.notasbko.dto.NotaDTO;
+import com.notasbko.dto.VersaoColecao;
 import com.notasbko.entity.Nota;
 import com.notasbko.entity.Nota.StatusNota;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface NotaRepository extends JpaRepository<Nota, Long> {
     
+    // Projeção base das respostas da API: somente as colunas da visão, com categoria e loja achatadas
+    String NOTA_DTO = "SELECT new com.notasbko.dto.NotaDTO(n.id, n.titulo, n.dataNota, n.anotacoes, n.status, " +
+                      "n.dataCriacao, n.dataAtualizacao, c.id, c.nome, l.id, l.nome) " +
+                      "FROM Nota n JOIN n.categoria c JOIN c.loja l ";
+    
+    String FETCH_SIZE_EXPORTACAO = "500";
+    
+    // Buscar nota por ID (projeção)
+    @Query(NOTA_DTO + "WHERE n.id = :id")
+    Optional<NotaDTO> findDtoById(@Param("id") Long id);
+    
+    // Buscar notas por uma lista de IDs (projeção)
+    @Query(NOTA_DTO + "WHERE n.id IN :ids")
+    List<NotaDTO> findDtosByIdIn(@Param("ids") List<Long> ids);
+    
     // Buscar notas por categoria
     List<Nota> findByCategoriaId(Long categoriaId);
     
     // Buscar notas por status
-    List<Nota> findByStatus(StatusNota status);
+    @Query(NOTA_DTO + "WHERE n.status = :status")
+    List<NotaDTO> findByStatus(@Param("status") StatusNota status);
     
-    // Buscar notas por loja (através da categoria)
-    @Query("SELECT n FROM Nota n WHERE n.categoria.loja.id = :lojaId")
-    List<Nota> findByLojaId(@Param("lojaId") Long lojaId);
+    // Buscar notas por loja (pela coluna loja_id da própria nota)
+    @Query(NOTA_DTO + "WHERE n.lojaId = :lojaId")
+    List<NotaDTO> findByLojaId(@Param("lojaId") Long lojaId);
+    
+    // Versão das notas de uma loja, incluindo categorias e loja (os nomes fazem parte da visão), sem carregar as notas
+    @Query("SELECT new com.notasbko.dto.VersaoColecao(COUNT(n), MAX(COALESCE(n.dataAtualizacao, n.dataCriacao)), " +
+           "(SELECT MAX(COALESCE(c.dataAtualizacao, c.dataCriacao)) FROM Categoria c WHERE c.loja.id = :lojaId), " +
+           "(SELECT COALESCE(l.dataAtualizacao, l.dataCriacao) FROM Loja l WHERE l.id = :lojaId)) " +
+           "FROM Nota n WHERE n.lojaId = :lojaId")
+    VersaoColecao findVersaoPorLoja(@Param("lojaId") Long lojaId);
     
     // Buscar notas por título (case insensitive)
     List<Nota> findByTituloContainingIgnoreCase(String titulo);
@@ -34,15 +69,53 @@ public interface NotaRepository extends JpaRepository<Nota, Long> {
     @Query("SELECT n FROM Nota n WHERE LOWER(n.titulo) LIKE LOWER(CONCAT('%', :texto, '%')) OR LOWER(n.anotacoes) LIKE LOWER(CONCAT('%', :texto, '%'))")
     List<Nota> findByTituloOrAnotacoesContaining(@Param("texto") String texto);
     
+    // Dados mínimos para carga do índice de busca, em lotes por id
+    @Query("SELECT n.id, n.titulo, n.anotacoes, n.status, n.lojaId, n.categoria.id, n.dataNota FROM Nota n " +
+           "WHERE n.id > :id ORDER BY n.id")
+    List<Object[]> findDadosIndiceApos(@Param("id") Long id, Limit limit);
+    
+    // Últimas notas criadas, já no formato do feed de atividades
+    @Query("SELECT new com.notasbko.dto.AtividadeNota(n.id, n.titulo, n.status, n.dataNota, n.dataCriacao, n.lojaId) " +
+           "FROM Nota n ORDER BY n.dataCriacao DESC, n.id DESC")
+    List<AtividadeNota> findAtividadesRecentes(Limit limit);
+    
+    @Query("SELECT new com.notasbko.dto.AtividadeNota(n.id, n.titulo, n.status, n.dataNota, n.dataCriacao, n.lojaId) " +
+           "FROM Nota n WHERE n.lojaId = :lojaId ORDER BY n.dataCriacao DESC, n.id DESC")
+    List<AtividadeNota> findAtividadesRecentesPorLoja(@Param("lojaId") Long lojaId, Limit limit);
+    
     // Buscar notas por status e loja
-    @Query("SELECT n FROM Nota n WHERE n.status = :status AND n.categoria.loja.id = :lojaId")
-    List<Nota> findByStatusAndLojaId(@Param("status") StatusNota status, @Param("lojaId") Long lojaId);
+    @Query(NOTA_DTO + "WHERE n.status = :status AND n.lojaId = :lojaId")
+    List<NotaDTO> findByStatusAndLojaId(@Param("status") StatusNota status, @Param("lojaId") Long lojaId);
     
     // Buscar notas ordenadas por data (mais recentes primeiro)
-    List<Nota> findAllByOrderByDataNotaDesc();
+    @Query(NOTA_DTO + "ORDER BY n.dataNota DESC")
+    List<NotaDTO> findAllByOrderByDataNotaDesc();
     
     // Buscar notas por categoria ordenadas por data
-    List<Nota> findByCategoriaIdOrderByDataNotaDesc(Long categoriaId);
+    @Query(NOTA_DTO + "WHERE c.id = :categoriaId ORDER BY n.dataNota DESC")
+    List<NotaDTO> findByCategoriaIdOrderByDataNotaDesc(@Param("categoriaId") Long categoriaId);
+    
+    // Paginação por cursor (keyset) em (dataNota, id), mais recentes primeiro
+    @Query(NOTA_DTO + "ORDER BY n.dataNota DESC, n.id DESC")
+    List<NotaDTO> findPrimeiraPagina(Limit limit);
+    
+    // A faixa n.dataNota <= :dataNota deixa o H2 começar a leitura de idx_notas_data no cursor
+    @Query(NOTA_DTO + "WHERE n.dataNota <= :dataNota AND (n.dataNota < :dataNota OR (n.dataNota = :dataNota AND n.id < :id)) ORDER BY n.dataNota DESC, n.id DESC")
+    List<NotaDTO> findPaginaApos(@Param("dataNota") LocalDateTime dataNota, @Param("id") Long id, Limit limit);
+    
+    @Query(NOTA_DTO + "WHERE c.id = :categoriaId ORDER BY n.dataNota DESC, n.id DESC")
+    List<NotaDTO> findPrimeiraPaginaPorCategoria(@Param("categoriaId") Long categoriaId, Limit limit);
+    
+    // n.dataNota <= :dataNota repete o cursor como faixa simples: o H2 não transforma o OR em faixa de índice, e sem
+    // ela a busca ficava só em categoria_id/loja_id e ordenava todas as notas da categoria ou loja a cada página
+    @Query(NOTA_DTO + "WHERE c.id = :categoriaId AND n.dataNota <= :dataNota AND (n.dataNota < :dataNota OR (n.dataNota = :dataNota AND n.id < :id)) ORDER BY n.dataNota DESC, n.id DESC")
+    List<NotaDTO> findPaginaPorCategoriaApos(@Param("categoriaId") Long categoriaId, @Param("dataNota") LocalDateTime dataNota, @Param("id") Long id, Limit limit);
+    
+    @Query(NOTA_DTO + "WHERE n.lojaId = :lojaId ORDER BY n.dataNota DESC, n.id DESC")
+    List<NotaDTO> findPrimeiraPaginaPorLoja(@Param("lojaId") Long lojaId, Limit limit);
+    
+    @Query(NOTA_DTO + "WHERE n.lojaId = :lojaId AND n.dataNota <= :dataNota AND (n.dataNota < :dataNota OR (n.dataNota = :dataNota AND n.id < :id)) ORDER BY n.dataNota DESC, n.id DESC")
+    List<NotaDTO> findPaginaPorLojaApos(@Param("lojaId") Long lojaId, @Param("dataNota") LocalDateTime dataNota, @Param("id") Long id, Limit limit);
     
     // Buscar notas por período
     @Query("SELECT n FROM Nota n WHERE n.dataNota BETWEEN :dataInicio AND :dataFim")
@@ -52,10 +125,19 @@ public interface NotaRepository extends JpaRepository<Nota, Long> {
     @Query("SELECT COUNT(n) FROM Nota n WHERE n.status = :status")
     Long countByStatus(@Param("status") StatusNota status);
     
+    // Contar notas agrupadas por loja e status em uma única consulta (lojas sem notas aparecem com total 0)
+    @Query("SELECT new com.notasbko.dto.ContagemNotasLoja(l.id, l.nome, n.status, COUNT(n)) " +
+           "FROM Loja l LEFT JOIN Nota n ON n.lojaId = l.id GROUP BY l.id, l.nome, n.status")
+    List<ContagemNotasLoja> countNotasPorLojaEStatus();
+    
     // Contar total de notas pendentes
     @Query("SELECT COUNT(n) FROM Nota n WHERE n.status = 'PENDENTE'")
     Long countNotasPendentes();
     
+    // Carregar notas com a categoria em uma única consulta IN (usado pelos endpoints em lote)
+    @Query("SELECT n FROM Nota n JOIN FETCH n.categoria WHERE n.id IN :ids")
+    List<Nota> findAllComCategoriaByIdIn(@Param("ids") Collection<Long> ids);
+    
     // Buscar nota por ID com lembretes
     @Query("SELECT n FROM Nota n LEFT JOIN FETCH n.lembretes WHERE n.id = :id")
     Optional<Nota> findByIdWithLembretes(@Param("id") Long id);
@@ -63,4 +145,12 @@ public interface NotaRepository extends JpaRepository<Nota, Long> {
     // Buscar notas com lembretes ativos
     @Query("SELECT DISTINCT n FROM Nota n JOIN n.lembretes l WHERE l.ativo = true AND l.notificado = false")
     List<Nota> findNotasComLembretesAtivos();
-}
\ No newline at end of file
+    
+    // Exportação: leitura forward-only em blocos de FETCH_SIZE_EXPORTACAO linhas; a projeção não entra no contexto de persistência
+    @QueryHints({
+        @QueryHint(name = HINT_FETCH_SIZE, value = FETCH_SIZE_EXPORTACAO),
+        @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query(NOTA_DTO + "WHERE (:lojaId IS NULL OR n.lojaId = :lojaId) ORDER BY n.id")
+    Stream<NotaDTO> streamParaExportacao(@Param("lojaId") Long lojaId);
+}
@@ -0,0 +1,256 @@
+package com.notasbko.service;
+
+import com.notasbko.dto.AtividadeLembrete;
+import com.notasbko.repository.LembreteRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Roda de tempo (hashed timing wheel) com os lembretes pendentes da próxima volta: cada tick examina só o slot
+// corrente, que tem apenas lembretes daquele tick, e os vencidos são marcados como notificados em lote. Lembretes além
+// do horizonte da roda ficam só no banco e são lidos por faixa de data/hora (idx_lembretes_pendentes) quando ela avança
+@Component
+public class AgendadorLembretes {
+
+    private static final Logger log = LoggerFactory.getLogger(AgendadorLembretes.class);
+
+    private static final int SLOTS = 512;
+    private static final int TAMANHO_LOTE_CARGA = 1000;
+    private static final int TAMANHO_LOTE_NOTIFICACAO = 500;
+
+    @Autowired
+    private LembreteRepository lembreteRepository;
+
+    @Autowired
+    private AtividadesRecentes atividadesRecentes;
+
+    // Lazy: LembretesEmMassa também depende do agendador
+    @Autowired
+    @Lazy
+    private LembretesEmMassa lembretesEmMassa;
+
+    @Autowired
+    private ApplicationEventPublisher eventos;
+
+    @Value("${notasbko.lembretes.tick-ms:1000}")
+    private long tickMs;
+
+    // Cada slot guarda os lembretes cujo tick alvo cai nele. Como a roda só recebe ticks até uma volta à frente do
+    // último processado, um slot nunca acumula lembretes de voltas futuras
+    @SuppressWarnings("unchecked")
+    private final Set<Agendado>[] slots = new Set[SLOTS];
+    private final Map<Long, Agendado> agendados = new HashMap<>();
+    private long ultimoTick = -1;
+    // A roda tem todos os lembretes pendentes com tick alvo antes do horizonte (0: nada carregado ainda)
+    private long horizonte = 0;
+    // Durante uma carga: o horizonte que ela vai publicar e os lembretes gravados enquanto ela lê o banco
+    private long horizonteEmCarga;
+    private Set<Long> gravadosDuranteCarga;
+
+    private record Agendado(AtividadeLembrete lembrete, long tickAlvo) {
+    }
+
+    // Carregar do banco os lembretes vencidos e os da primeira volta na subida da aplicação
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregar() {
+        estenderHorizonte();
+        log.info("Agendador de lembretes carregado com {} lembretes na primeira volta", tamanho());
+    }
+
+    // Incluir ou reagendar um lembrete pendente (ativo e não notificado)
+    public synchronized void agendar(AtividadeLembrete lembrete) {
+        cancelarSemLock(lembrete.id());
+        registrarGravacao(lembrete.id());
+        colocar(lembrete);
+    }
+
+    // Retirar um lembrete da roda (removido, desativado ou já notificado)
+    public synchronized void cancelar(Long id) {
+        cancelarSemLock(id);
+        registrarGravacao(id);
+    }
+
+    public synchronized int tamanho() {
+        return agendados.size();
+    }
+
+    // Avançar a roda até o tick atual, recolhendo os lembretes vencidos, e trazer do banco a faixa seguinte
+    // quando o horizonte estiver a menos de meia volta
+    @Scheduled(fixedRateString = "${notasbko.lembretes.tick-ms:1000}")
+    public void tick() {
+        List<AtividadeLembrete> vencidos = avancar(tickAtual());
+        for (int inicio = 0; inicio < vencidos.size(); inicio += TAMANHO_LOTE_NOTIFICACAO) {
+            notificar(vencidos.subList(inicio, Math.min(inicio + TAMANHO_LOTE_NOTIFICACAO, vencidos.size())));
+        }
+        estenderHorizonte();
+    }
+
+    private synchronized List<AtividadeLembrete> avancar(long agora) {
+        List<AtividadeLembrete> vencidos = new ArrayList<>();
+        if (ultimoTick < 0) {
+            ultimoTick = agora - 1;
+        }
+        // Depois de uma pausa maior que uma volta, basta percorrer cada slot uma vez
+        long inicio = Math.max(ultimoTick + 1, agora - SLOTS + 1);
+        for (long tick = inicio; tick <= agora; tick++) {
+            Iterator<Agendado> iterator = slot(tick).iterator();
+            while (iterator.hasNext()) {
+                Agendado agendado = iterator.next();
+                if (agendado.tickAlvo() <= agora) {
+                    iterator.remove();
+                    agendados.remove(agendado.lembrete().id());
+                    vencidos.add(agendado.lembrete());
+                }
+            }
+        }
+        ultimoTick = Math.max(ultimoTick, agora);
+        return vencidos;
+    }
+
+    // Ler do banco os lembretes pendentes entre o horizonte atual e uma volta à frente do último tick. A leitura é
+    // feita fora do lock; o que for gravado enquanto isso já entra na roda e a versão lida pela carga é descartada
+    private void estenderHorizonte() {
+        long de;
+        long ate;
+        synchronized (this) {
+            if (ultimoTick < 0) {
+                ultimoTick = tickAtual() - 1;
+            }
+            if (gravadosDuranteCarga != null || horizonte - ultimoTick > SLOTS / 2) {
+                return;
+            }
+            de = horizonte;
+            ate = ultimoTick + SLOTS + 1;
+            horizonteEmCarga = ate;
+            gravadosDuranteCarga = new HashSet<>();
+        }
+
+        List<AtividadeLembrete> lidos = new ArrayList<>();
+        try {
+            // tickDe(d) < ate equivale a d <= fim do tick ate - 1; o que vem antes de de já foi carregado
+            LocalDateTime fim = fimDoTick(ate - 1);
+            List<AtividadeLembrete> lote = de == 0
+                ? lembreteRepository.findPendentesAte(fim, Limit.of(TAMANHO_LOTE_CARGA))
+                : lembreteRepository.findPendentesAteApos(fim, fimDoTick(de - 1), Long.MAX_VALUE, Limit.of(TAMANHO_LOTE_CARGA));
+            lidos.addAll(lote);
+            while (lote.size() == TAMANHO_LOTE_CARGA) {
+                AtividadeLembrete ultimo = lote.get(lote.size() - 1);
+                lote = lembreteRepository.findPendentesAteApos(fim, ultimo.dataHoraLembrete(), ultimo.id(),
+                    Limit.of(TAMANHO_LOTE_CARGA));
+                lidos.addAll(lote);
+            }
+        } catch (Exception e) {
+            // Sem avançar o horizonte: a mesma faixa é lida de novo no próximo tick
+            log.warn("Falha ao carregar lembretes pendentes: {}", e.getMessage());
+            synchronized (this) {
+                gravadosDuranteCarga = null;
+            }
+            return;
+        }
+
+        synchronized (this) {
+            for (AtividadeLembrete lembrete : lidos) {
+                if (!gravadosDuranteCarga.contains(lembrete.id())) {
+                    cancelarSemLock(lembrete.id());
+                    colocar(lembrete);
+                }
+            }
+            horizonte = ate;
+            gravadosDuranteCarga = null;
+        }
+    }
+
+    private void notificar(List<AtividadeLembrete> lote) {
+        List<Long> ids = lote.stream().map(AtividadeLembrete::id).toList();
+        Set<Long> marcados;
+        try {
+            marcados = lembretesEmMassa.marcarDisparados(ids, LocalDateTime.now());
+            log.debug("{} lembretes disparados, {} marcados como notificados", ids.size(), marcados.size());
+        } catch (Exception e) {
+            // Devolver à roda para nova tentativa no próximo tick
+            log.warn("Falha ao marcar lembretes como notificados: {}", e.getMessage());
+            lote.forEach(this::agendar);
+            return;
+        }
+
+        // Só os marcados disparam: os demais mudaram depois de entrar na roda e os listeners JPA já cuidaram deles.
+        // O UPDATE em lote não passa pelos listeners, então o feed dos marcados é atualizado aqui
+        for (AtividadeLembrete lembrete : lote) {
+            if (marcados.contains(lembrete.id())) {
+                atividadesRecentes.lembreteRemovido(lembrete.id());
+                eventos.publishEvent(new LembreteDisparado(lembrete));
+            }
+        }
+    }
+
+    // Lembretes além do horizonte ficam só no banco e entram pela carga quando a roda chegar perto deles
+    private void colocar(AtividadeLembrete lembrete) {
+        if (ultimoTick < 0) {
+            ultimoTick = tickAtual() - 1;
+        }
+        // Lembretes já vencidos entram no próximo tick
+        long tickAlvo = Math.max(tickDe(lembrete.dataHoraLembrete()), ultimoTick + 1);
+        if (tickAlvo >= (gravadosDuranteCarga != null ? horizonteEmCarga : horizonte)) {
+            return;
+        }
+        Agendado agendado = new Agendado(lembrete, tickAlvo);
+        slot(tickAlvo).add(agendado);
+        agendados.put(lembrete.id(), agendado);
+    }
+
+    private void registrarGravacao(Long id) {
+        if (gravadosDuranteCarga != null) {
+            gravadosDuranteCarga.add(id);
+        }
+    }
+
+    private void cancelarSemLock(Long id) {
+        Agendado anterior = agendados.remove(id);
+        if (anterior != null) {
+            slot(anterior.tickAlvo()).remove(anterior);
+        }
+    }
+
+    private Set<Agendado> slot(long tick) {
+        int indice = (int) Math.floorMod(tick, (long) SLOTS);
+        if (slots[indice] == null) {
+            slots[indice] = new LinkedHashSet<>();
+        }
+        return slots[indice];
+    }
+
+    private long tickAtual() {
+        return System.currentTimeMillis() / tickMs;
+    }
+
+    // Arredonda para cima: o lembrete nunca dispara antes da sua data/hora
+    private long tickDe(LocalDateTime dataHora) {
+        long millis = dataHora.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        return Math.floorDiv(millis + tickMs - 1, tickMs);
+    }
+
+    // Maior data/hora cujo tick é o informado
+    private LocalDateTime fimDoTick(long tick) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(tick * tickMs), ZoneId.systemDefault());
+    }
+}
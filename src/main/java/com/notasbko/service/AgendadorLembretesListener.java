@@ -0,0 +1,38 @@
+package com.notasbko.service;
+
+import com.notasbko.dto.AtividadeLembrete;
+import com.notasbko.entity.Lembrete;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+// Mantém a roda do agendador em dia com criação, edição, ativação/desativação e remoção de lembretes
+@Component
+public class AgendadorLembretesListener {
+    
+    @Autowired
+    @Lazy
+    private AgendadorLembretes agendador;
+    
+    @PostPersist
+    @PostUpdate
+    public void aposSalvar(Lembrete lembrete) {
+        Long id = lembrete.getId();
+        if (Boolean.TRUE.equals(lembrete.getAtivo()) && !Boolean.TRUE.equals(lembrete.getNotificado())) {
+            AtividadeLembrete atividade = new AtividadeLembrete(id, lembrete.getTitulo(), lembrete.getDataHoraLembrete(),
+                lembrete.getNota().getId(), lembrete.getLojaId());
+            AposCommit.executar(() -> agendador.agendar(atividade));
+        } else {
+            AposCommit.executar(() -> agendador.cancelar(id));
+        }
+    }
+    
+    @PostRemove
+    public void aposRemover(Lembrete lembrete) {
+        Long id = lembrete.getId();
+        AposCommit.executar(() -> agendador.cancelar(id));
+    }
+}
@@ -0,0 +1,288 @@
+package com.notasbko.service;
+
+import com.notasbko.dto.AtividadeLembrete;
+import com.notasbko.dto.AtividadeNota;
+import com.notasbko.repository.LembreteRepository;
+import com.notasbko.repository.NotaRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+// Estruturas em memória do feed de atividades: últimas notas criadas e próximos lembretes
+@Component
+public class AtividadesRecentes {
+    
+    public static final int MAXIMO_ITENS = 50;
+    
+    // Folga sobre MAXIMO_ITENS para que as remoções não deixem o feed curto; se deixarem, o buffer é recarregado
+    private static final int CAPACIDADE_NOTAS = 2 * MAXIMO_ITENS;
+    private static final int CAPACIDADE_NOTAS_LOJA = 2 * MAXIMO_ITENS;
+    // Lojas com buffer em memória; a consultada há mais tempo sai quando o limite é passado
+    private static final int MAXIMO_LOJAS = 500;
+    private static final int TENTATIVAS_CARGA = 3;
+    private static final int CAPACIDADE_LEMBRETES = 500;
+    
+    private static final Comparator<AtividadeNota> POR_CRIACAO =
+        Comparator.comparing(AtividadeNota::dataCriacao).thenComparing(AtividadeNota::id);
+    private static final Comparator<AtividadeLembrete> POR_DATA_HORA =
+        Comparator.comparing(AtividadeLembrete::dataHoraLembrete).thenComparing(AtividadeLembrete::id);
+    
+    @Autowired
+    private NotaRepository notaRepository;
+    
+    @Autowired
+    private LembreteRepository lembreteRepository;
+    
+    // Últimas notas: um buffer global e um por loja (carregado sob demanda, em LRU)
+    private volatile BufferCircular<AtividadeNota> notas = new BufferCircular<>(CAPACIDADE_NOTAS);
+    private final Map<Long, BufferCircular<AtividadeNota>> notasPorLoja = Collections.synchronizedMap(
+        new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, BufferCircular<AtividadeNota>> maisAntiga) {
+                return size() > MAXIMO_LOJAS;
+            }
+        });
+    // Muda a cada evento de nota: um buffer lido do banco enquanto chegava um evento pode estar desatualizado
+    private final AtomicLong versaoNotas = new AtomicLong();
+    
+    // Próximos lembretes ativos e não notificados, limitados aos mais cedo
+    private final ConcurrentSkipListSet<AtividadeLembrete> lembretes = new ConcurrentSkipListSet<>(POR_DATA_HORA);
+    private final Map<Long, AtividadeLembrete> lembretesPorId = new ConcurrentHashMap<>();
+    // Muda a cada evento de lembrete; as alterações e a troca pela recarga acontecem sob o monitor da instância, e a
+    // recarga só publica o que leu se nenhum evento chegou durante a leitura
+    private final AtomicLong versaoLembretes = new AtomicLong();
+    
+    // Indica se todos os lembretes futuros cabem na estrutura (sem descartes por capacidade)
+    private volatile boolean lembretesCompletos = true;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregar() {
+        recarregarNotas();
+        recarregarLembretes();
+    }
+    
+    // Notas
+    public void notaCriada(AtividadeNota nota) {
+        versaoNotas.incrementAndGet();
+        notas.adicionar(nota);
+        BufferCircular<AtividadeNota> daLoja = notasPorLoja.get(nota.lojaId());
+        if (daLoja != null) {
+            daLoja.adicionar(nota);
+        }
+    }
+    
+    public void notaAtualizada(AtividadeNota nota) {
+        versaoNotas.incrementAndGet();
+        notas.substituir(item -> item.id().equals(nota.id()), nota);
+        // Nota que mudou de loja sai do buffer da loja anterior
+        boolean noDestino = false;
+        synchronized (notasPorLoja) {
+            for (Map.Entry<Long, BufferCircular<AtividadeNota>> loja : notasPorLoja.entrySet()) {
+                boolean destino = loja.getKey().equals(nota.lojaId());
+                boolean encontrada = loja.getValue().substituir(item -> item.id().equals(nota.id()), destino ? nota : null);
+                noDestino |= destino && encontrada;
+            }
+        }
+        // e entra no da nova loja, que é recarregado quando ela cai na janela das últimas criadas
+        BufferCircular<AtividadeNota> destino = notasPorLoja.get(nota.lojaId());
+        if (!noDestino && destino != null && cabeNoBuffer(destino, nota)) {
+            notasPorLoja.remove(nota.lojaId(), destino);
+        }
+    }
+    
+    public void notaRemovida(Long id) {
+        versaoNotas.incrementAndGet();
+        notas.substituir(item -> item.id().equals(id), null);
+        synchronized (notasPorLoja) {
+            notasPorLoja.values().forEach(buffer -> buffer.substituir(item -> item.id().equals(id), null));
+        }
+    }
+    
+    public List<AtividadeNota> ultimasNotas(Long lojaId, int n) {
+        BufferCircular<AtividadeNota> buffer = lojaId == null ? notas : bufferDaLoja(lojaId);
+        List<AtividadeNota> resultado = ultimas(buffer, n);
+        // Remoções abriram buracos num buffer que não tem todas as notas: completar pelo banco
+        if (resultado.size() < n && !buffer.isCompleto()) {
+            if (lojaId == null) {
+                buffer = recarregarNotas();
+            } else {
+                notasPorLoja.remove(lojaId, buffer);
+                buffer = bufferDaLoja(lojaId);
+            }
+            resultado = ultimas(buffer, n);
+        }
+        return resultado;
+    }
+    
+    private static List<AtividadeNota> ultimas(BufferCircular<AtividadeNota> buffer, int n) {
+        List<AtividadeNota> itens = semRepetidos(buffer.recentes(buffer.capacidade(), item -> true), AtividadeNota::id);
+        return itens.size() > n ? itens.subList(0, n) : itens;
+    }
+    
+    // A nota pertence ao buffer se ele tem todas as notas da loja ou se ela é mais nova que a mais antiga guardada
+    private static boolean cabeNoBuffer(BufferCircular<AtividadeNota> buffer, AtividadeNota nota) {
+        if (buffer.isCompleto()) {
+            return true;
+        }
+        List<AtividadeNota> itens = buffer.recentes(buffer.capacidade(), item -> true);
+        return itens.isEmpty() || POR_CRIACAO.compare(nota, itens.get(itens.size() - 1)) > 0;
+    }
+    
+    // Buffer da loja, lido do banco fora de qualquer lock do mapa. Publicado só se nenhum evento de nota chegou
+    // durante a leitura; sob escrita contínua a resposta sai do que foi lido, sem guardar
+    private BufferCircular<AtividadeNota> bufferDaLoja(Long lojaId) {
+        BufferCircular<AtividadeNota> buffer = notasPorLoja.get(lojaId);
+        if (buffer != null) {
+            return buffer;
+        }
+        BufferCircular<AtividadeNota> lido = null;
+        for (int tentativa = 0; tentativa < TENTATIVAS_CARGA; tentativa++) {
+            long versao = versaoNotas.get();
+            lido = lerNotas(lojaId, CAPACIDADE_NOTAS_LOJA);
+            notasPorLoja.put(lojaId, lido);
+            if (versaoNotas.get() == versao) {
+                return lido;
+            }
+            notasPorLoja.remove(lojaId, lido);
+        }
+        return lido;
+    }
+    
+    private BufferCircular<AtividadeNota> recarregarNotas() {
+        BufferCircular<AtividadeNota> lido = null;
+        for (int tentativa = 0; tentativa < TENTATIVAS_CARGA; tentativa++) {
+            long versao = versaoNotas.get();
+            lido = lerNotas(null, CAPACIDADE_NOTAS);
+            notas = lido;
+            if (versaoNotas.get() == versao) {
+                break;
+            }
+        }
+        return lido;
+    }
+    
+    private BufferCircular<AtividadeNota> lerNotas(Long lojaId, int capacidade) {
+        List<AtividadeNota> ultimas = lojaId == null
+            ? notaRepository.findAtividadesRecentes(Limit.of(capacidade))
+            : notaRepository.findAtividadesRecentesPorLoja(lojaId, Limit.of(capacidade));
+        BufferCircular<AtividadeNota> buffer = new BufferCircular<>(capacidade, ultimas.size() < capacidade);
+        for (int i = ultimas.size() - 1; i >= 0; i--) {
+            buffer.adicionar(ultimas.get(i));
+        }
+        return buffer;
+    }
+    
+    // Lembretes (pendente = ativo e ainda não notificado)
+    public synchronized void lembreteSalvo(AtividadeLembrete lembrete, boolean pendente) {
+        lembreteRemovido(lembrete.id());
+        if (!pendente || !lembrete.dataHoraLembrete().isAfter(LocalDateTime.now())) {
+            return;
+        }
+        if (!lembretesCompletos && POR_DATA_HORA.compare(lembrete, ultimoLembrete()) > 0) {
+            return; // fora da janela carregada; entra em uma próxima recarga
+        }
+        lembretes.add(lembrete);
+        lembretesPorId.put(lembrete.id(), lembrete);
+        while (lembretes.size() > CAPACIDADE_LEMBRETES) {
+            AtividadeLembrete descartado = lembretes.pollLast();
+            if (descartado != null) {
+                lembretesPorId.remove(descartado.id());
+                lembretesCompletos = false;
+            }
+        }
+    }
+    
+    public synchronized void lembreteRemovido(Long id) {
+        versaoLembretes.incrementAndGet();
+        AtividadeLembrete anterior = lembretesPorId.remove(id);
+        if (anterior != null) {
+            lembretes.remove(anterior);
+        }
+    }
+    
+    public List<AtividadeLembrete> proximosLembretes(Long lojaId, int n, LocalDateTime limite) {
+        LocalDateTime agora = LocalDateTime.now();
+        descartarVencidos(agora);
+        if (!lembretesCompletos && lembretes.size() < n) {
+            recarregarLembretes();
+        }
+        
+        List<AtividadeLembrete> resultado = new ArrayList<>(n);
+        for (AtividadeLembrete lembrete : lembretes) {
+            if (resultado.size() >= n || lembrete.dataHoraLembrete().isAfter(limite)) {
+                break;
+            }
+            if (lojaId == null || lojaId.equals(lembrete.lojaId())) {
+                resultado.add(lembrete);
+            }
+        }
+        
+        // Lojas pouco frequentes podem não estar entre os carregados: completar pelo banco
+        if (lojaId != null && resultado.size() < n && !lembretesCompletos) {
+            return lembreteRepository.findAtividadesProximasPorLoja(lojaId, agora, limite, Limit.of(n));
+        }
+        return resultado;
+    }
+    
+    private void descartarVencidos(LocalDateTime agora) {
+        AtividadeLembrete primeiro;
+        while ((primeiro = primeiroLembrete()) != null && !primeiro.dataHoraLembrete().isAfter(agora)) {
+            if (lembretes.remove(primeiro)) {
+                lembretesPorId.remove(primeiro.id(), primeiro);
+            }
+        }
+    }
+    
+    // Lidos do banco fora do monitor; sob escrita contínua a estrutura atual, mantida pelos eventos, continua valendo
+    private void recarregarLembretes() {
+        for (int tentativa = 0; tentativa < TENTATIVAS_CARGA; tentativa++) {
+            long versao = versaoLembretes.get();
+            List<AtividadeLembrete> proximos = lembreteRepository.findAtividadesProximas(LocalDateTime.now(),
+                Limit.of(CAPACIDADE_LEMBRETES));
+            synchronized (this) {
+                if (versaoLembretes.get() == versao) {
+                    lembretes.clear();
+                    lembretesPorId.clear();
+                    for (AtividadeLembrete lembrete : proximos) {
+                        lembretes.add(lembrete);
+                        lembretesPorId.put(lembrete.id(), lembrete);
+                    }
+                    lembretesCompletos = proximos.size() < CAPACIDADE_LEMBRETES;
+                    return;
+                }
+            }
+        }
+    }
+    
+    private AtividadeLembrete primeiroLembrete() {
+        Iterator<AtividadeLembrete> iterator = lembretes.iterator();
+        return iterator.hasNext() ? iterator.next() : null;
+    }
+    
+    private AtividadeLembrete ultimoLembrete() {
+        Iterator<AtividadeLembrete> iterator = lembretes.descendingIterator();
+        return iterator.hasNext() ? iterator.next() : new AtividadeLembrete(Long.MIN_VALUE, null, LocalDateTime.MIN, null, null);
+    }
+    
+    private static <T> List<T> semRepetidos(List<T> itens, Function<T, Long> id) {
+        Set<Long> vistos = new HashSet<>();
+        return itens.stream().filter(item -> vistos.add(id.apply(item))).toList();
+    }
+}
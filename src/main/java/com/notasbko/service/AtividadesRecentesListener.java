@@ -0,0 +1,65 @@
+package com.notasbko.service;
+
+import com.notasbko.dto.AtividadeLembrete;
+import com.notasbko.dto.AtividadeNota;
+import com.notasbko.entity.Lembrete;
+import com.notasbko.entity.Nota;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+// Mantém o feed de atividades recentes em dia com as gravações de Nota e Lembrete
+@Component
+public class AtividadesRecentesListener {
+    
+    @Autowired
+    @Lazy
+    private AtividadesRecentes atividades;
+    
+    @PostPersist
+    public void aposCriar(Object entidade) {
+        if (entidade instanceof Nota nota) {
+            AtividadeNota atividade = atividadeDe(nota);
+            AposCommit.executar(() -> atividades.notaCriada(atividade));
+        } else if (entidade instanceof Lembrete lembrete) {
+            lembreteSalvo(lembrete);
+        }
+    }
+    
+    @PostUpdate
+    public void aposAtualizar(Object entidade) {
+        if (entidade instanceof Nota nota) {
+            AtividadeNota atividade = atividadeDe(nota);
+            AposCommit.executar(() -> atividades.notaAtualizada(atividade));
+        } else if (entidade instanceof Lembrete lembrete) {
+            lembreteSalvo(lembrete);
+        }
+    }
+    
+    @PostRemove
+    public void aposRemover(Object entidade) {
+        if (entidade instanceof Nota nota) {
+            Long id = nota.getId();
+            AposCommit.executar(() -> atividades.notaRemovida(id));
+        } else if (entidade instanceof Lembrete lembrete) {
+            Long id = lembrete.getId();
+            AposCommit.executar(() -> atividades.lembreteRemovido(id));
+        }
+    }
+    
+    private void lembreteSalvo(Lembrete lembrete) {
+        boolean pendente = Boolean.TRUE.equals(lembrete.getAtivo()) && !Boolean.TRUE.equals(lembrete.getNotificado());
+        Nota nota = lembrete.getNota();
+        AtividadeLembrete atividade = new AtividadeLembrete(lembrete.getId(), lembrete.getTitulo(),
+            lembrete.getDataHoraLembrete(), nota.getId(), lembrete.getLojaId());
+        AposCommit.executar(() -> atividades.lembreteSalvo(atividade, pendente));
+    }
+    
+    private static AtividadeNota atividadeDe(Nota nota) {
+        return new AtividadeNota(nota.getId(), nota.getTitulo(), nota.getStatus(), nota.getDataNota(),
+            nota.getDataCriacao(), nota.getLojaId());
+    }
+}
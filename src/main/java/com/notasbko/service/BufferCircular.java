@@ -0,0 +1,67 @@
+package com.notasbko.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Predicate;
+
+// Buffer circular de tamanho fixo e sem locks; as escritas mais novas sobrescrevem as mais antigas
+final class BufferCircular<T> {
+    
+    private final AtomicReferenceArray<T> itens;
+    private final AtomicLong proximo = new AtomicLong();
+    // Verdadeiro enquanto o buffer tem todos os itens da origem (nada foi descartado por capacidade)
+    private volatile boolean completo;
+    
+    BufferCircular(int capacidade) {
+        this(capacidade, true);
+    }
+    
+    BufferCircular(int capacidade, boolean completo) {
+        this.itens = new AtomicReferenceArray<>(capacidade);
+        this.completo = completo;
+    }
+    
+    void adicionar(T item) {
+        long posicao = proximo.getAndIncrement();
+        if (itens.getAndSet((int) (posicao % itens.length()), item) != null) {
+            completo = false;
+        }
+    }
+    
+    // Trocar (ou apagar, com novo nulo) os itens que atendem ao critério; indica se algum foi encontrado
+    boolean substituir(Predicate<T> alvo, T novo) {
+        boolean encontrado = false;
+        for (int i = 0; i < itens.length(); i++) {
+            T atual = itens.get(i);
+            if (atual != null && alvo.test(atual)) {
+                itens.compareAndSet(i, atual, novo);
+                encontrado = true;
+            }
+        }
+        return encontrado;
+    }
+    
+    boolean isCompleto() {
+        return completo;
+    }
+    
+    int capacidade() {
+        return itens.length();
+    }
+    
+    // Até n itens, do mais novo para o mais antigo
+    List<T> recentes(int n, Predicate<T> filtro) {
+        List<T> resultado = new ArrayList<>(Math.min(n, itens.length()));
+        long fim = proximo.get();
+        long inicio = Math.max(0, fim - itens.length());
+        for (long posicao = fim - 1; posicao >= inicio && resultado.size() < n; posicao--) {
+            T item = itens.get((int) (posicao % itens.length()));
+            if (item != null && filtro.test(item)) {
+                resultado.add(item);
+            }
+        }
+        return resultado;
+    }
+}
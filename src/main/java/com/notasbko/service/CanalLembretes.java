@@ -0,0 +1,167 @@
+package com.notasbko.service;
+
+import com.notasbko.dto.AtividadeLembrete;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter.SseEventBuilder;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Canal SSE de lembretes: cada inscrito tem um buffer limitado e é atendido por um pool pequeno e compartilhado,
+// então conexões ociosas não ocupam threads
+@Component
+public class CanalLembretes {
+
+    private static final Logger log = LoggerFactory.getLogger(CanalLembretes.class);
+
+    public static final String VENCIDO = "vencido";
+    public static final String CRIADO = "criado";
+    public static final String ATUALIZADO = "atualizado";
+    public static final String REMOVIDO = "removido";
+
+    private static final int CAPACIDADE_BUFFER = 256;
+    private static final int THREADS_ENVIO = 4;
+
+    // Descartes seguidos (sem nenhum envio bem-sucedido) antes de desconectar um inscrito lento;
+    // o EventSource do navegador reconecta sozinho
+    private static final int DESCARTES_MAXIMOS = 1024;
+
+    private final Set<Inscricao> inscricoes = ConcurrentHashMap.newKeySet();
+    private final AtomicLong sequencia = new AtomicLong();
+    private final ExecutorService envio = Executors.newFixedThreadPool(THREADS_ENVIO, threads());
+
+    // Registrar um novo inscrito (lojaId nulo = todas as lojas)
+    public SseEmitter inscrever(Long lojaId) {
+        // Sem timeout: conexões mortas são detectadas pelo heartbeat
+        SseEmitter emitter = new SseEmitter(0L);
+        Inscricao inscricao = new Inscricao(emitter, lojaId);
+        emitter.onCompletion(() -> inscricoes.remove(inscricao));
+        emitter.onTimeout(() -> inscricoes.remove(inscricao));
+        emitter.onError(e -> inscricoes.remove(inscricao));
+        inscricoes.add(inscricao);
+        inscricao.enfileirar(Evento.comentario("conectado"));
+        return emitter;
+    }
+
+    public void publicar(String tipo, AtividadeLembrete lembrete) {
+        if (inscricoes.isEmpty()) {
+            return;
+        }
+        Evento evento = new Evento(String.valueOf(sequencia.incrementAndGet()), tipo, lembrete, null);
+        for (Inscricao inscricao : inscricoes) {
+            if (inscricao.lojaId == null || inscricao.lojaId.equals(lembrete.lojaId())) {
+                inscricao.enfileirar(evento);
+            }
+        }
+    }
+
+    @EventListener
+    public void aoDisparar(LembreteDisparado disparado) {
+        publicar(VENCIDO, disparado.lembrete());
+    }
+
+    // Comentário periódico para manter proxies abertos e descobrir clientes que já saíram
+    @Scheduled(fixedRate = 30000)
+    public void heartbeat() {
+        for (Inscricao inscricao : inscricoes) {
+            inscricao.enfileirar(Evento.comentario("ping"));
+        }
+    }
+
+    public int getInscritos() {
+        return inscricoes.size();
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        envio.shutdownNow();
+        inscricoes.forEach(inscricao -> inscricao.emitter.complete());
+        inscricoes.clear();
+    }
+
+    private static CustomizableThreadFactory threads() {
+        CustomizableThreadFactory fabrica = new CustomizableThreadFactory("sse-lembretes-");
+        fabrica.setDaemon(true);
+        return fabrica;
+    }
+
+    // O SseEventBuilder acumula estado a cada envio, então o evento é guardado cru e montado por inscrito
+    private record Evento(String id, String nome, Object dados, String comentario) {
+
+        static Evento comentario(String texto) {
+            return new Evento(null, null, null, texto);
+        }
+
+        SseEventBuilder montar() {
+            if (comentario != null) {
+                return SseEmitter.event().comment(comentario);
+            }
+            return SseEmitter.event().id(id).name(nome).data(dados, MediaType.APPLICATION_JSON);
+        }
+    }
+
+    private final class Inscricao implements Runnable {
+
+        private final SseEmitter emitter;
+        private final Long lojaId;
+        private final BlockingQueue<Evento> fila = new ArrayBlockingQueue<>(CAPACIDADE_BUFFER);
+        private final AtomicBoolean agendada = new AtomicBoolean();
+        private final AtomicLong descartes = new AtomicLong();
+
+        private Inscricao(SseEmitter emitter, Long lojaId) {
+            this.emitter = emitter;
+            this.lojaId = lojaId;
+        }
+
+        // Buffer cheio: descarta o evento mais antigo; lento demais: desconecta
+        void enfileirar(Evento evento) {
+            while (!fila.offer(evento)) {
+                if (fila.poll() != null && descartes.incrementAndGet() > DESCARTES_MAXIMOS) {
+                    log.debug("Inscrito SSE desconectado por lentidão (loja {})", lojaId);
+                    inscricoes.remove(this);
+                    emitter.complete();
+                    return;
+                }
+            }
+            if (agendada.compareAndSet(false, true)) {
+                envio.execute(this);
+            }
+        }
+
+        // Esvazia o buffer na thread do pool; nunca há duas execuções simultâneas por inscrito
+        @Override
+        public void run() {
+            try {
+                Evento evento;
+                while ((evento = fila.poll()) != null) {
+                    emitter.send(evento.montar());
+                    descartes.set(0);
+                }
+            } catch (IOException | IllegalStateException e) {
+                inscricoes.remove(this);
+                fila.clear();
+                return;
+            } finally {
+                agendada.set(false);
+            }
+            if (!fila.isEmpty() && agendada.compareAndSet(false, true)) {
+                envio.execute(this);
+            }
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.notasbko.service;
+
+import com.notasbko.dto.AtividadeLembrete;
+import com.notasbko.entity.Lembrete;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+// Publica no canal SSE as gravações de Lembrete, depois do commit
+@Component
+public class CanalLembretesListener {
+    
+    @Autowired
+    @Lazy
+    private CanalLembretes canal;
+    
+    @PostPersist
+    public void aposCriar(Lembrete lembrete) {
+        publicar(CanalLembretes.CRIADO, lembrete);
+    }
+    
+    @PostUpdate
+    public void aposAtualizar(Lembrete lembrete) {
+        publicar(CanalLembretes.ATUALIZADO, lembrete);
+    }
+    
+    @PostRemove
+    public void aposRemover(Lembrete lembrete) {
+        publicar(CanalLembretes.REMOVIDO, lembrete);
+    }
+    
+    private void publicar(String tipo, Lembrete lembrete) {
+        AtividadeLembrete atividade = new AtividadeLembrete(lembrete.getId(), lembrete.getTitulo(),
+            lembrete.getDataHoraLembrete(), lembrete.getNota().getId(), lembrete.getLojaId());
+        AposCommit.executar(() -> canal.publicar(tipo, atividade));
+    }
+}
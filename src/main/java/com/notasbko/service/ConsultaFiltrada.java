@@ -0,0 +1,246 @@
+package com.notasbko.service;
+
+import com.notasbko.dto.FiltroConsultaLembretes;
+import com.notasbko.dto.FiltroNotas;
+import com.notasbko.dto.LembreteDTO;
+import com.notasbko.dto.NotaDTO;
+import com.notasbko.entity.Categoria;
+import com.notasbko.entity.Lembrete;
+import com.notasbko.entity.Loja;
+import com.notasbko.entity.Nota;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+// Consultas combinadas de notas e lembretes: qualquer subconjunto dos filtros, a ordenação pedida e a página após
+// o cursor viram um único SELECT montado com a Criteria API. Os filtros de igualdade (loja, categoria, nota, status,
+// ativo/notificado) e a ordenação com id de desempate seguem as colunas dos índices da V3. O texto das notas é
+// resolvido no índice em memória (NotaIndiceBusca, por palavras como em /notas/buscar), que já aplica também os
+// demais filtros, e entra como n.id IN (...), limitado a MAXIMO_NOTAS_TEXTO ids. Os lembretes não têm índice de texto: o LIKE nos dois campos é avaliado linha a
+// linha no que os demais filtros deixam, e sem nenhum outro filtro percorre a tabela inteira.
+@Service
+public class ConsultaFiltrada {
+
+    // Campos ordenáveis -> tipo da chave do cursor; todos são NOT NULL, o que mantém a paginação keyset exata
+    private static final Map<String, Function<String, Comparable<?>>> ORDENACAO_NOTAS = Map.of(
+        "dataNota", ConsultaFiltrada::data,
+        "dataCriacao", ConsultaFiltrada::data,
+        "titulo", chave -> chave);
+    private static final Map<String, Function<String, Comparable<?>>> ORDENACAO_LEMBRETES = Map.of(
+        "dataHoraLembrete", ConsultaFiltrada::data,
+        "dataCriacao", ConsultaFiltrada::data);
+
+    // Notas que a consulta combinada com texto pode devolver; acima disso a lista do IN fica grande demais e a consulta
+    // é recusada. O limite vale para o resultado filtrado, pois o índice aplica todos os filtros antes de contar
+    public static final int MAXIMO_NOTAS_TEXTO = 1000;
+
+    public static final Ordenacao PADRAO_NOTAS = new Ordenacao("dataNota", true);
+    public static final Ordenacao PADRAO_LEMBRETES = new Ordenacao("dataHoraLembrete", false);
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private NotaIndiceBusca indiceBusca;
+
+    // Campo e direção da ordenação; o id entra sempre como desempate na mesma direção
+    public record Ordenacao(String campo, boolean decrescente) {
+
+        // Formato "campo" ou "campo,asc|desc" (IllegalArgumentException se inválido); nulo devolve o padrão
+        static Ordenacao de(String sort, Ordenacao padrao, Map<String, ?> permitidos) {
+            if (sort == null || sort.isBlank()) {
+                return padrao;
+            }
+            String[] partes = sort.split(",", -1);
+            String campo = partes[0].trim();
+            if (!permitidos.containsKey(campo) || partes.length > 2) {
+                throw new IllegalArgumentException("Ordenação inválida: " + sort + " (campos: " + permitidos.keySet() + ")");
+            }
+            if (partes.length == 1) {
+                return new Ordenacao(campo, campo.equals(padrao.campo()) && padrao.decrescente());
+            }
+            return switch (partes[1].trim().toLowerCase(Locale.ROOT)) {
+                case "asc" -> new Ordenacao(campo, false);
+                case "desc" -> new Ordenacao(campo, true);
+                default -> throw new IllegalArgumentException("Direção inválida: " + partes[1]);
+            };
+        }
+    }
+
+    public static Ordenacao ordenacaoNotas(String sort) {
+        return Ordenacao.de(sort, PADRAO_NOTAS, ORDENACAO_NOTAS);
+    }
+
+    public static Ordenacao ordenacaoLembretes(String sort) {
+        return Ordenacao.de(sort, PADRAO_LEMBRETES, ORDENACAO_LEMBRETES);
+    }
+
+    // Chave do cursor para o item: o nome do campo vai junto, para recusar um cursor gerado com outra ordenação
+    public static String chaveCursor(Ordenacao ordenacao, NotaDTO nota) {
+        return ordenacao.campo() + ":" + switch (ordenacao.campo()) {
+            case "titulo" -> nota.titulo();
+            case "dataCriacao" -> nota.dataCriacao();
+            default -> nota.dataNota();
+        };
+    }
+
+    public static String chaveCursor(Ordenacao ordenacao, LembreteDTO lembrete) {
+        return ordenacao.campo() + ":" + (ordenacao.campo().equals("dataCriacao")
+            ? lembrete.dataCriacao() : lembrete.dataHoraLembrete());
+    }
+
+    // Página de notas; chave/aposId nulos começam do início. Com resumo, anotacoes não é lida (vai nula)
+    @Transactional(readOnly = true)
+    public List<NotaDTO> notas(FiltroNotas filtro, boolean resumo, Ordenacao ordenacao, String chave, Long aposId,
+                               int limite) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<NotaDTO> consulta = cb.createQuery(NotaDTO.class);
+        Root<Nota> n = consulta.from(Nota.class);
+        Join<Nota, Categoria> c = n.join("categoria");
+        Join<Categoria, Loja> l = c.join("loja");
+        consulta.select(cb.construct(NotaDTO.class, n.get("id"), n.get("titulo"), n.get("dataNota"),
+            resumo ? cb.nullLiteral(String.class) : n.get("anotacoes"), n.get("status"), n.get("dataCriacao"), n.get("dataAtualizacao"), c.get("id"),
+            c.get("nome"), l.get("id"), l.get("nome")));
+
+        List<Predicate> condicoes = new ArrayList<>();
+        if (filtro.lojaId() != null) {
+            condicoes.add(cb.equal(n.get("lojaId"), filtro.lojaId()));
+        }
+        if (filtro.categoriaId() != null) {
+            // Compara a FK categoria_id, sem depender do JOIN
+            condicoes.add(cb.equal(n.get("categoria").get("id"), filtro.categoriaId()));
+        }
+        if (filtro.status() != null) {
+            condicoes.add(cb.equal(n.get("status"), filtro.status()));
+        }
+        periodo(cb, n.get("dataNota"), filtro.de(), filtro.ate(), condicoes);
+        if (filtro.texto() != null && !filtro.texto().isBlank()) {
+            Set<Long> ids = indiceBusca.ids(filtro);
+            if (ids.isEmpty()) {
+                return List.of();
+            }
+            if (ids.size() > MAXIMO_NOTAS_TEXTO) {
+                throw new IllegalArgumentException("Texto casa com " + ids.size() + " notas (máximo "
+                    + MAXIMO_NOTAS_TEXTO + "); refine o texto ou os filtros");
+            }
+            condicoes.add(n.get("id").in(ids));
+        }
+
+        return executar(cb, consulta, n, condicoes, ordenacao, ORDENACAO_NOTAS, chave, aposId, limite);
+    }
+
+    // Página de lembretes; chave/aposId nulos começam do início
+    @Transactional(readOnly = true)
+    public List<LembreteDTO> lembretes(FiltroConsultaLembretes filtro, Ordenacao ordenacao, String chave, Long aposId,
+                                       int limite) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<LembreteDTO> consulta = cb.createQuery(LembreteDTO.class);
+        Root<Lembrete> l = consulta.from(Lembrete.class);
+        Join<Lembrete, Nota> n = l.join("nota");
+        consulta.select(cb.construct(LembreteDTO.class, l.get("id"), l.get("titulo"), l.get("descricao"),
+            l.get("dataHoraLembrete"), l.get("ativo"), l.get("notificado"), l.get("dataCriacao"),
+            l.get("dataAtualizacao"), n.get("id"), n.get("titulo"), l.get("lojaId")));
+
+        List<Predicate> condicoes = new ArrayList<>();
+        if (filtro.lojaId() != null) {
+            condicoes.add(cb.equal(l.get("lojaId"), filtro.lojaId()));
+        }
+        if (filtro.notaId() != null) {
+            condicoes.add(cb.equal(l.get("nota").get("id"), filtro.notaId()));
+        }
+        if (filtro.ativo() != null) {
+            condicoes.add(cb.equal(l.get("ativo"), filtro.ativo()));
+        }
+        if (filtro.notificado() != null) {
+            condicoes.add(cb.equal(l.get("notificado"), filtro.notificado()));
+        }
+        periodo(cb, l.get("dataHoraLembrete"), filtro.de(), filtro.ate(), condicoes);
+        texto(cb, filtro.texto(), condicoes, l.get("titulo"), l.get("descricao"));
+
+        return executar(cb, consulta, l, condicoes, ordenacao, ORDENACAO_LEMBRETES, chave, aposId, limite);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private <T> List<T> executar(CriteriaBuilder cb, CriteriaQuery<T> consulta, Root<?> raiz, List<Predicate> condicoes,
+                                 Ordenacao ordenacao, Map<String, Function<String, Comparable<?>>> permitidos,
+                                 String chave, Long aposId, int limite) {
+        Path campo = raiz.get(ordenacao.campo());
+        Path<Long> id = raiz.get("id");
+        if (aposId != null) {
+            Comparable valor = valorCursor(chave, ordenacao, permitidos);
+            // (campo, id) depois do último item da página anterior, na direção da ordenação; a faixa simples em campo
+            // vem junto porque o H2 não usa o OR como faixa do índice (loja_id, campo)
+            condicoes.add(ordenacao.decrescente()
+                ? cb.lessThanOrEqualTo(campo, valor)
+                : cb.greaterThanOrEqualTo(campo, valor));
+            condicoes.add(ordenacao.decrescente()
+                ? cb.or(cb.lessThan(campo, valor), cb.and(cb.equal(campo, valor), cb.lessThan(id, aposId)))
+                : cb.or(cb.greaterThan(campo, valor), cb.and(cb.equal(campo, valor), cb.greaterThan(id, aposId))));
+        }
+        consulta.where(condicoes.toArray(Predicate[]::new));
+        consulta.orderBy(ordenacao.decrescente()
+            ? List.of(cb.desc(campo), cb.desc(id))
+            : List.of(cb.asc(campo), cb.asc(id)));
+        return entityManager.createQuery(consulta).setMaxResults(limite).getResultList();
+    }
+
+    private static Comparable<?> valorCursor(String chave, Ordenacao ordenacao,
+                                             Map<String, Function<String, Comparable<?>>> permitidos) {
+        String prefixo = ordenacao.campo() + ":";
+        if (chave == null || !chave.startsWith(prefixo)) {
+            throw new IllegalArgumentException("Cursor de outra ordenação");
+        }
+        return permitidos.get(ordenacao.campo()).apply(chave.substring(prefixo.length()));
+    }
+
+    private static LocalDateTime data(String valor) {
+        try {
+            return LocalDateTime.parse(valor);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Cursor inválido", e);
+        }
+    }
+
+    private static void periodo(CriteriaBuilder cb, Path<LocalDateTime> campo, LocalDateTime de, LocalDateTime ate,
+                                List<Predicate> condicoes) {
+        if (de != null) {
+            condicoes.add(cb.greaterThanOrEqualTo(campo, de));
+        }
+        if (ate != null) {
+            condicoes.add(cb.lessThanOrEqualTo(campo, ate));
+        }
+    }
+
+    // Trecho contido em qualquer dos campos, sem diferenciar maiúsculas; sem índice, avaliado linha a linha
+    @SafeVarargs
+    private static void texto(CriteriaBuilder cb, String texto, List<Predicate> condicoes, Expression<String>... campos) {
+        if (texto == null || texto.isBlank()) {
+            return;
+        }
+        String padrao = "%" + texto.strip().toLowerCase(Locale.ROOT)
+            .replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+        List<Predicate> alternativas = new ArrayList<>();
+        for (Expression<String> campo : campos) {
+            alternativas.add(cb.like(cb.lower(campo), padrao, '\\'));
+        }
+        condicoes.add(cb.or(alternativas.toArray(Predicate[]::new)));
+    }
+}
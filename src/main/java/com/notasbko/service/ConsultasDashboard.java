@@ -0,0 +1,106 @@
+package com.notasbko.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// Consultas do dashboard ao banco, executadas num pool limitado e compartilhadas entre chamadas simultâneas
+// (single-flight): enquanto uma consulta com a mesma chave está em andamento, os novos chamadores aguardam o
+// mesmo resultado em vez de repetir a consulta. Quem esperar além do timeout recebe TimeoutException, sem
+// cancelar a consulta dos demais. Os comandos executados no pool contam no X-Sql-Statements da requisição que
+// disparou a consulta (ContadorSql.propagar); quem só aguardou uma consulta já em andamento não os conta.
+@Component
+public class ConsultasDashboard {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${notasbko.dashboard.threads:4}")
+    private int threads;
+
+    @Value("${notasbko.dashboard.fila:200}")
+    private int fila;
+
+    @Value("${notasbko.dashboard.timeout-ms:5000}")
+    private long timeoutMs;
+
+    private final Map<String, CompletableFuture<Object>> emAndamento = new ConcurrentHashMap<>();
+    private ExecutorService executor;
+
+    @PostConstruct
+    void iniciar() {
+        AtomicInteger contador = new AtomicInteger();
+        ThreadFactory fabrica = tarefa -> {
+            Thread thread = new Thread(tarefa, "dashboard-consulta-" + contador.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        // Fila cheia rejeita a consulta em vez de acumular espera
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(fila), fabrica, new ThreadPoolExecutor.AbortPolicy());
+        executor = ExecutorServiceMetrics.monitor(meterRegistry, pool, "dashboard.consultas");
+    }
+
+    @PreDestroy
+    void encerrar() {
+        executor.shutdownNow();
+    }
+
+    // Lança TimeoutException após o timeout e RejectedExecutionException com o pool saturado
+    @SuppressWarnings("unchecked")
+    public <T> T executar(String chave, Supplier<T> consulta) throws TimeoutException {
+        CompletableFuture<Object> nova = new CompletableFuture<>();
+        CompletableFuture<Object> atual = emAndamento.putIfAbsent(chave, nova);
+        if (atual == null) {
+            atual = nova;
+            Supplier<T> tarefa = ContadorSql.propagar(consulta);
+            try {
+                executor.execute(() -> {
+                    try {
+                        Object resultado = tarefa.get();
+                        // Sai do mapa antes de completar: quem chegar depois dispara uma consulta nova
+                        emAndamento.remove(chave, nova);
+                        nova.complete(resultado);
+                    } catch (Throwable e) {
+                        emAndamento.remove(chave, nova);
+                        nova.completeExceptionally(e);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                emAndamento.remove(chave, nova);
+                nova.completeExceptionally(e);
+                throw e;
+            }
+        }
+
+        try {
+            return (T) atual.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Consulta do dashboard interrompida", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw new IllegalStateException("Falha na consulta do dashboard", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.notasbko.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+// Contagem dos comandos SQL enviados ao banco pela thread corrente, dentro de um escopo aberto (requisição HTTP,
+// teste). O mesmo SQL preparado várias vezes no escopo, cada vez com outros parâmetros, é o padrão N+1.
+// Os escopos podem ser aninhados; cada comando conta para todos os escopos abertos na thread, e para o escopo
+// repassado com propagar às tarefas que ela entrega a outra thread.
+public final class ContadorSql {
+
+    private static final ThreadLocal<Escopo> ATUAL = new ThreadLocal<>();
+
+    private ContadorSql() {
+    }
+
+    public static Escopo abrir() {
+        Escopo escopo = new Escopo(ATUAL.get());
+        ATUAL.set(escopo);
+        return escopo;
+    }
+
+    // Chamado pelo DataSource instrumentado; sem escopo aberto (tarefas agendadas, carga inicial) não faz nada
+    static void registrar(String sql) {
+        for (Escopo escopo = ATUAL.get(); escopo != null; escopo = escopo.pai) {
+            escopo.registrar(sql);
+        }
+    }
+
+    // Tarefa que vai rodar em outra thread (pool do dashboard) contando os comandos nos escopos abertos na thread
+    // que a criou. Sem escopo aberto devolve a própria tarefa
+    public static <T> Supplier<T> propagar(Supplier<T> tarefa) {
+        Escopo origem = ATUAL.get();
+        if (origem == null) {
+            return tarefa;
+        }
+        return () -> {
+            Escopo anterior = ATUAL.get();
+            ATUAL.set(origem);
+            try {
+                return tarefa.get();
+            } finally {
+                if (anterior == null) {
+                    ATUAL.remove();
+                } else {
+                    ATUAL.set(anterior);
+                }
+            }
+        };
+    }
+
+    public static final class Escopo implements AutoCloseable {
+
+        private final Escopo pai;
+        private final Map<String, Integer> execucoesPorSql = new LinkedHashMap<>();
+        private int total;
+        private boolean fechado;
+
+        private Escopo(Escopo pai) {
+            this.pai = pai;
+        }
+
+        // Sincronizado: com propagar, a thread do escopo e as do pool registram no mesmo escopo
+        private synchronized void registrar(String sql) {
+            total++;
+            execucoesPorSql.merge(sql.strip(), 1, Integer::sum);
+        }
+
+        public synchronized int total() {
+            return total;
+        }
+
+        public synchronized Relatorio relatorio() {
+            return new Relatorio(total, new LinkedHashMap<>(execucoesPorSql));
+        }
+
+        // Devolve a thread ao escopo anterior
+        @Override
+        public void close() {
+            if (!fechado) {
+                fechado = true;
+                if (pai == null) {
+                    ATUAL.remove();
+                } else {
+                    ATUAL.set(pai);
+                }
+            }
+        }
+    }
+
+    public record Relatorio(int total, Map<String, Integer> execucoesPorSql) {
+
+        // SQLs executados ao menos limite vezes, do mais repetido para o menos
+        public Map<String, Integer> repetidos(int limite) {
+            return execucoesPorSql.entrySet().stream()
+                .filter(entrada -> entrada.getValue() >= limite)
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (a, b) -> a, LinkedHashMap::new));
+        }
+
+        public String descricao() {
+            return execucoesPorSql.entrySet().stream()
+                .map(entrada -> "  " + entrada.getValue() + "x " + entrada.getKey().replaceAll("\\s+", " "))
+                .collect(Collectors.joining(System.lineSeparator()));
+        }
+    }
+}
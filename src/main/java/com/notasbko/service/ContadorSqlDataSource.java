@@ -0,0 +1,83 @@
+package com.notasbko.service;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+
+// Instrumenta o DataSource da aplicação para o ContadorSql: conta cada PreparedStatement/CallableStatement
+// preparado e cada SQL executado diretamente num Statement. Os lotes (addBatch) de um mesmo PreparedStatement
+// contam uma vez só, como uma única ida ao banco.
+@Component
+public class ContadorSqlDataSource implements BeanPostProcessor {
+
+    private static final Set<String> PREPARACOES = Set.of("prepareStatement", "prepareCall");
+    private static final Set<String> EXECUCOES_DIRETAS = Set.of("execute", "executeQuery", "executeUpdate",
+        "executeLargeUpdate", "addBatch");
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof DataSourceContado)) {
+            return new DataSourceContado(dataSource);
+        }
+        return bean;
+    }
+
+    // unwrap/isWrapperFor seguem para o pool, então as métricas do Hikari continuam encontrando o HikariDataSource
+    static final class DataSourceContado extends DelegatingDataSource {
+
+        DataSourceContado(DataSource alvo) {
+            super(alvo);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return contar(super.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return contar(super.getConnection(username, password));
+        }
+
+        private static Connection contar(Connection conexao) {
+            return (Connection) Proxy.newProxyInstance(ContadorSqlDataSource.class.getClassLoader(),
+                new Class<?>[] {Connection.class}, (proxy, metodo, args) -> {
+                    if (PREPARACOES.contains(metodo.getName()) && args != null && args[0] instanceof String sql) {
+                        ContadorSql.registrar(sql);
+                    }
+                    Object resultado = invocar(conexao, metodo, args);
+                    if (resultado instanceof Statement statement && "createStatement".equals(metodo.getName())) {
+                        return contar(statement);
+                    }
+                    return resultado;
+                });
+        }
+
+        private static Statement contar(Statement statement) {
+            return (Statement) Proxy.newProxyInstance(ContadorSqlDataSource.class.getClassLoader(),
+                new Class<?>[] {Statement.class}, (proxy, metodo, args) -> {
+                    if (EXECUCOES_DIRETAS.contains(metodo.getName()) && args != null && args[0] instanceof String sql) {
+                        ContadorSql.registrar(sql);
+                    }
+                    return invocar(statement, metodo, args);
+                });
+        }
+
+        private static Object invocar(Object alvo, Method metodo, Object[] args) throws Throwable {
+            try {
+                return metodo.invoke(alvo, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.notasbko.service;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Map;
+
+// Um escopo do ContadorSql por requisição HTTP. O total vai no header X-Sql-Statements (gravado antes do primeiro
+// byte do corpo, quando os headers ainda podem mudar) e no log; SQL repetido a partir do limite é logado como N+1.
+// Os comandos de respostas assíncronas (exportações, SSE) rodam em outras threads e ficam fora da contagem.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ContadorSqlFiltro extends OncePerRequestFilter {
+
+    public static final String HEADER_TOTAL = "X-Sql-Statements";
+    public static final String HEADER_REPETIDOS = "X-Sql-N-Plus-One";
+
+    private static final Logger log = LoggerFactory.getLogger(ContadorSqlFiltro.class);
+
+    @Value("${notasbko.sql.limite-repeticoes:5}")
+    private int limiteRepeticoes;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        ContadorSql.Relatorio relatorio;
+        try (ContadorSql.Escopo escopo = ContadorSql.abrir()) {
+            RespostaComContagem resposta = new RespostaComContagem(response, escopo, limiteRepeticoes);
+            filterChain.doFilter(request, resposta);
+            // Respostas sem corpo não passam por getOutputStream/getWriter
+            resposta.gravarHeaders();
+            relatorio = escopo.relatorio();
+        }
+        if (relatorio.total() == 0) {
+            return;
+        }
+
+        String chamada = request.getMethod() + " " + request.getRequestURI();
+        Map<String, Integer> repetidos = relatorio.repetidos(limiteRepeticoes);
+        if (!repetidos.isEmpty()) {
+            log.warn("Possível N+1 em {}: {} comandos SQL, repetidos:{}{}", chamada, relatorio.total(),
+                System.lineSeparator(), new ContadorSql.Relatorio(relatorio.total(), repetidos).descricao());
+        } else {
+            log.debug("{}: {} comandos SQL", chamada, relatorio.total());
+        }
+    }
+
+    // Grava os headers de contagem no momento em que a resposta começa a ser escrita
+    private static final class RespostaComContagem extends HttpServletResponseWrapper {
+
+        private final ContadorSql.Escopo escopo;
+        private final int limiteRepeticoes;
+        private boolean gravado;
+
+        RespostaComContagem(HttpServletResponse response, ContadorSql.Escopo escopo, int limiteRepeticoes) {
+            super(response);
+            this.escopo = escopo;
+            this.limiteRepeticoes = limiteRepeticoes;
+        }
+
+        private void gravarHeaders() {
+            if (gravado || isCommitted()) {
+                return;
+            }
+            gravado = true;
+            setHeader(HEADER_TOTAL, Integer.toString(escopo.total()));
+            int repetidos = escopo.relatorio().repetidos(limiteRepeticoes).size();
+            if (repetidos > 0) {
+                setHeader(HEADER_REPETIDOS, Integer.toString(repetidos));
+            }
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            gravarHeaders();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            gravarHeaders();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            gravarHeaders();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            gravarHeaders();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            gravarHeaders();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            gravarHeaders();
+            super.sendRedirect(location);
+        }
+    }
+}
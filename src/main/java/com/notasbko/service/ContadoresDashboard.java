@@ -0,0 +1,205 @@
+package com.notasbko.service;
+
+import com.notasbko.dto.ContagemNotasLoja;
+import com.notasbko.entity.Nota.StatusNota;
+import com.notasbko.repository.CategoriaRepository;
+import com.notasbko.repository.LembreteRepository;
+import com.notasbko.repository.LojaRepository;
+import com.notasbko.repository.NotaRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Contadores em memória do dashboard, atualizados pelos eventos de gravação e reconciliados periodicamente com o banco
+@Component
+public class ContadoresDashboard {
+    
+    private static final Logger log = LoggerFactory.getLogger(ContadoresDashboard.class);
+    
+    @Autowired
+    private LojaRepository lojaRepository;
+    
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+    
+    @Autowired
+    private NotaRepository notaRepository;
+    
+    @Autowired
+    private LembreteRepository lembreteRepository;
+    
+    private final LongAdder totalLojas = new LongAdder();
+    private final LongAdder totalCategorias = new LongAdder();
+    private final LongAdder lembretesAtivos = new LongAdder();
+    private final Map<StatusNota, LongAdder> notasPorStatus = new EnumMap<>(StatusNota.class);
+    // Só lojas existentes: criadas por lojaCriada ou pela reconciliação, retiradas por lojaRemovida
+    private final Map<Long, Map<StatusNota, LongAdder>> notasPorLoja = new ConcurrentHashMap<>();
+    
+    public ContadoresDashboard() {
+        for (StatusNota status : StatusNota.values()) {
+            notasPorStatus.put(status, new LongAdder());
+        }
+    }
+    
+    // Leituras
+    public long getTotalLojas() {
+        return totalLojas.sum();
+    }
+    
+    public long getTotalCategorias() {
+        return totalCategorias.sum();
+    }
+    
+    public long getLembretesAtivos() {
+        return lembretesAtivos.sum();
+    }
+    
+    public long getNotas(StatusNota status) {
+        return notasPorStatus.get(status).sum();
+    }
+    
+    public long getTotalNotas() {
+        return notasPorStatus.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+    
+    // Notas da loja por status; nulo para loja desconhecida (inexistente, ou criada depois da última reconciliação
+    // sem passar por lojaCriada)
+    public Map<StatusNota, Long> getNotasDaLoja(Long lojaId) {
+        Map<StatusNota, LongAdder> porStatus = notasPorLoja.get(lojaId);
+        if (porStatus == null) {
+            return null;
+        }
+        Map<StatusNota, Long> notas = new EnumMap<>(StatusNota.class);
+        porStatus.forEach((status, contador) -> notas.put(status, contador.sum()));
+        return notas;
+    }
+    
+    // Eventos de loja e categoria
+    public void lojaCriada(Long lojaId) {
+        totalLojas.increment();
+        notasPorLoja.putIfAbsent(lojaId, novoContadorPorStatus());
+    }
+    
+    public void lojaRemovida(Long lojaId) {
+        totalLojas.decrement();
+        notasPorLoja.remove(lojaId);
+    }
+    
+    public void categoriaCriada() {
+        totalCategorias.increment();
+    }
+    
+    public void categoriaRemovida() {
+        totalCategorias.decrement();
+    }
+    
+    // Eventos de nota (status nulo indica que a nota não existia / deixou de existir)
+    public void notaAlterada(Long lojaIdAnterior, StatusNota statusAnterior, Long lojaIdAtual, StatusNota statusAtual) {
+        if (statusAnterior != null) {
+            notasPorStatus.get(statusAnterior).decrement();
+            contadorDaLoja(lojaIdAnterior, statusAnterior, -1);
+        }
+        if (statusAtual != null) {
+            notasPorStatus.get(statusAtual).increment();
+            contadorDaLoja(lojaIdAtual, statusAtual, 1);
+        }
+    }
+    
+    private void contadorDaLoja(Long lojaId, StatusNota status, int delta) {
+        // Loja desconhecida (já removida, ou criada durante a reconciliação): a próxima reconciliação corrige
+        Map<StatusNota, LongAdder> porStatus = lojaId == null ? null : notasPorLoja.get(lojaId);
+        if (porStatus != null) {
+            porStatus.get(status).add(delta);
+        }
+    }
+    
+    // Eventos de lembrete
+    public void lembreteAlterado(boolean ativoAntes, boolean ativoDepois) {
+        if (ativoAntes != ativoDepois) {
+            lembretesAtivos.add(ativoDepois ? 1 : -1);
+        }
+    }
+    
+    // Recalcular tudo a partir do banco para corrigir desvios. Cada contador recebe a diferença entre o banco e o
+    // valor lido logo antes da consulta, em vez de ser zerado: os eventos que chegam durante a reconciliação continuam
+    // somando. Resta só a janela entre o commit de uma gravação e o seu evento, corrigida na execução seguinte.
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${notasbko.contadores.reconciliacao-ms:300000}",
+               initialDelayString = "${notasbko.contadores.reconciliacao-ms:300000}")
+    public void reconciliar() {
+        ajustar(totalLojas, totalLojas.sum(), lojaRepository.countTotalLojas());
+        ajustar(totalCategorias, totalCategorias.sum(), categoriaRepository.countTotalCategorias());
+        ajustar(lembretesAtivos, lembretesAtivos.sum(), lembreteRepository.countLembretesAtivos());
+        
+        Map<StatusNota, Long> statusAntes = new EnumMap<>(StatusNota.class);
+        notasPorStatus.forEach((status, contador) -> statusAntes.put(status, contador.sum()));
+        Map<Long, Map<StatusNota, Long>> lojasAntes = new HashMap<>();
+        notasPorLoja.forEach((lojaId, porStatus) -> lojasAntes.put(lojaId, somas(porStatus)));
+        
+        Map<StatusNota, Long> porStatus = new EnumMap<>(StatusNota.class);
+        Map<Long, Map<StatusNota, Long>> porLoja = new HashMap<>();
+        List<ContagemNotasLoja> contagens = notaRepository.countNotasPorLojaEStatus();
+        for (ContagemNotasLoja contagem : contagens) {
+            Map<StatusNota, Long> daLoja = porLoja.computeIfAbsent(contagem.lojaId(), id -> new EnumMap<>(StatusNota.class));
+            if (contagem.status() != null) {
+                porStatus.merge(contagem.status(), contagem.total(), Long::sum);
+                daLoja.merge(contagem.status(), contagem.total(), Long::sum);
+            }
+        }
+        
+        for (StatusNota status : StatusNota.values()) {
+            ajustar(notasPorStatus.get(status), statusAntes.get(status), porStatus.get(status));
+        }
+        porLoja.forEach((lojaId, banco) -> {
+            Map<StatusNota, Long> antes = lojasAntes.get(lojaId);
+            Map<StatusNota, LongAdder> atual = notasPorLoja.get(lojaId);
+            if (atual == null) {
+                // Ainda sem eventos (carga inicial ou loja vista pela primeira vez): valores do banco
+                Map<StatusNota, LongAdder> novo = novoContadorPorStatus();
+                banco.forEach((status, total) -> novo.get(status).add(total));
+                notasPorLoja.putIfAbsent(lojaId, novo);
+            } else if (antes != null) {
+                for (StatusNota status : StatusNota.values()) {
+                    ajustar(atual.get(status), antes.get(status), banco.get(status));
+                }
+            }
+            // Loja criada durante a reconciliação: os eventos já contam tudo desde a criação
+        });
+        // Lojas que já existiam antes da consulta e não estão mais no banco
+        Set<Long> removidas = lojasAntes.keySet();
+        removidas.removeAll(porLoja.keySet());
+        notasPorLoja.keySet().removeAll(removidas);
+        
+        log.debug("Contadores do dashboard reconciliados: {} lojas, {} notas", getTotalLojas(), getTotalNotas());
+    }
+    
+    private static void ajustar(LongAdder contador, Long antes, Long banco) {
+        contador.add((banco != null ? banco : 0L) - (antes != null ? antes : 0L));
+    }
+    
+    private static Map<StatusNota, Long> somas(Map<StatusNota, LongAdder> porStatus) {
+        Map<StatusNota, Long> somas = new EnumMap<>(StatusNota.class);
+        porStatus.forEach((status, contador) -> somas.put(status, contador.sum()));
+        return somas;
+    }
+    
+    private static Map<StatusNota, LongAdder> novoContadorPorStatus() {
+        Map<StatusNota, LongAdder> mapa = new EnumMap<>(StatusNota.class);
+        for (StatusNota status : StatusNota.values()) {
+            mapa.put(status, new LongAdder());
+        }
+        return mapa;
+    }
+}
@@ -0,0 +1,115 @@
+package com.notasbko.service;
+
+import com.notasbko.entity.Categoria;
+import com.notasbko.entity.Lembrete;
+import com.notasbko.entity.Loja;
+import com.notasbko.entity.Nota;
+import com.notasbko.entity.Nota.StatusNota;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+
+// Alimenta os contadores do dashboard a partir dos eventos pós-commit do Hibernate (que trazem o estado anterior)
+@Component
+public class ContadoresListener implements PostCommitInsertEventListener, PostCommitUpdateEventListener,
+        PostCommitDeleteEventListener {
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    @Autowired
+    private ContadoresDashboard contadores;
+    
+    @PostConstruct
+    public void registrar() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+            .getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+    
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        Object entidade = event.getEntity();
+        if (entidade instanceof Nota nota) {
+            contadores.notaAlterada(null, null, nota.getLojaId(), nota.getStatus());
+        } else if (entidade instanceof Lembrete lembrete) {
+            contadores.lembreteAlterado(false, Boolean.TRUE.equals(lembrete.getAtivo()));
+        } else if (entidade instanceof Categoria) {
+            contadores.categoriaCriada();
+        } else if (entidade instanceof Loja loja) {
+            contadores.lojaCriada(loja.getId());
+        }
+    }
+    
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        Object[] anterior = event.getOldState();
+        if (anterior == null) {
+            return; // entidade desanexada sem estado anterior; a reconciliação corrige
+        }
+        Object entidade = event.getEntity();
+        EntityPersister persister = event.getPersister();
+        if (entidade instanceof Nota nota) {
+            Long lojaAnterior = (Long) anterior[indice(persister, "lojaId")];
+            StatusNota statusAnterior = (StatusNota) anterior[indice(persister, "status")];
+            contadores.notaAlterada(lojaAnterior, statusAnterior, nota.getLojaId(), nota.getStatus());
+        } else if (entidade instanceof Lembrete lembrete) {
+            Boolean ativoAnterior = (Boolean) anterior[indice(persister, "ativo")];
+            contadores.lembreteAlterado(Boolean.TRUE.equals(ativoAnterior), Boolean.TRUE.equals(lembrete.getAtivo()));
+        }
+    }
+    
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        Object[] removido = event.getDeletedState();
+        EntityPersister persister = event.getPersister();
+        Object entidade = event.getEntity();
+        if (entidade instanceof Nota) {
+            Long lojaId = (Long) removido[indice(persister, "lojaId")];
+            contadores.notaAlterada(lojaId, (StatusNota) removido[indice(persister, "status")], null, null);
+        } else if (entidade instanceof Lembrete) {
+            contadores.lembreteAlterado(Boolean.TRUE.equals(removido[indice(persister, "ativo")]), false);
+        } else if (entidade instanceof Categoria) {
+            contadores.categoriaRemovida();
+        } else if (entidade instanceof Loja loja) {
+            contadores.lojaRemovida(loja.getId());
+        }
+    }
+    
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+        // nada a desfazer: os contadores só mudam após o commit
+    }
+    
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+    
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+    
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return true;
+    }
+    
+    private static int indice(EntityPersister persister, String propriedade) {
+        return Arrays.asList(persister.getPropertyNames()).indexOf(propriedade);
+    }
+}
@@ -0,0 +1,335 @@
+package com.notasbko.service;
+
+import com.notasbko.dto.ContatoSugestao;
+import com.notasbko.entity.Contato.Cargo;
+import com.notasbko.repository.ContatoRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+// Índice em memória para o autocomplete de contatos por nome, email e matrícula, particionado por loja.
+// Cada partição é imutável: as palavras dos campos ficam num array ordenado (prefixo por busca binária) e o trecho
+// em qualquer posição (como o LIKE %x%) é conferido direto nos contatos da loja, que são poucos. A consulta exige a
+// loja e lê só a partição dela. Uma gravação reconstrói
+// só a partição da loja e a troca no mapa, então as consultas não usam lock e não vão ao banco.
+@Component
+public class ContatoIndiceAutocomplete {
+
+    private static final Logger log = LoggerFactory.getLogger(ContatoIndiceAutocomplete.class);
+
+    public static final int LIMITE_PADRAO = 10;
+    public static final int LIMITE_MAXIMO = 50;
+
+    private static final int TAMANHO_LOTE_CARGA = 1000;
+    private static final int TAMANHO_MINIMO_TRECHO = 3;
+    private static final Pattern SEPARADORES = Pattern.compile("[^\\p{Alnum}]+");
+    private static final Pattern NAO_DIGITOS = Pattern.compile("\\D+");
+
+    // Pontuação pelo tipo de correspondência, somada ao peso do campo em que ela ocorreu
+    private static final int CAMPO_IGUAL = 400;
+    private static final int CAMPO_PREFIXO = 300;
+    private static final int PALAVRA_PREFIXO = 250;
+    private static final int TODAS_AS_PALAVRAS = 200;
+    private static final int TRECHO = 100;
+    private static final int PESO_NOME = 30;
+    private static final int PESO_MATRICULA = 20;
+    private static final int PESO_EMAIL = 10;
+
+    @Autowired
+    private ContatoRepository contatoRepository;
+
+    private final Map<Long, Particao> particoes = new ConcurrentHashMap<>();
+    private final Map<Long, Long> lojaPorContato = new ConcurrentHashMap<>();
+    // Serializa as gravações; as consultas leem a partição publicada no mapa
+    private final Object escrita = new Object();
+    // Contatos gravados enquanto a carga inicial lê o banco: a versão lida por ela pode estar desatualizada
+    private Set<Long> gravadosDuranteCarga;
+
+    // Campos já normalizados (minúsculas, sem acentos) junto com a resposta pronta
+    private record Documento(ContatoSugestao sugestao, String nome, String matricula, String email) {
+
+        static Documento de(ContatoSugestao contato) {
+            return new Documento(contato, TextoNormalizador.dobrar(contato.nome()).strip(),
+                TextoNormalizador.dobrar(contato.matricula()).strip(), TextoNormalizador.dobrar(contato.email()).strip());
+        }
+
+        Set<String> palavras() {
+            Set<String> palavras = new LinkedHashSet<>();
+            for (String campo : List.of(nome, matricula, email)) {
+                separarPalavras(campo, palavras);
+            }
+            // Matrícula também pelos dígitos, sem o T inicial
+            String digitos = NAO_DIGITOS.matcher(matricula).replaceAll("");
+            if (!digitos.isEmpty()) {
+                palavras.add(digitos);
+            }
+            return palavras;
+        }
+    }
+
+    private static final class Particao {
+
+        private final Documento[] documentos;
+        // termos[i] é palavra do documento posicoes[i]
+        private final String[] termos;
+        private final int[] posicoes;
+
+        Particao(Collection<Documento> contatos) {
+            documentos = contatos.toArray(Documento[]::new);
+            List<Map.Entry<String, Integer>> pares = new ArrayList<>();
+            for (int i = 0; i < documentos.length; i++) {
+                for (String palavra : documentos[i].palavras()) {
+                    pares.add(Map.entry(palavra, i));
+                }
+            }
+            pares.sort(Map.Entry.comparingByKey());
+            termos = new String[pares.size()];
+            posicoes = new int[pares.size()];
+            for (int i = 0; i < pares.size(); i++) {
+                termos[i] = pares.get(i).getKey();
+                posicoes[i] = pares.get(i).getValue();
+            }
+        }
+
+        // Documentos com alguma palavra começando pelo prefixo
+        BitSet comPrefixo(String prefixo) {
+            BitSet resultado = new BitSet(documentos.length);
+            int inicio = Arrays.binarySearch(termos, prefixo);
+            for (int i = inicio >= 0 ? inicio : -inicio - 1; i < termos.length && termos[i].startsWith(prefixo); i++) {
+                resultado.set(posicoes[i]);
+            }
+            return resultado;
+        }
+
+        Particao com(Documento documento) {
+            Map<Long, Documento> contatos = mapa();
+            contatos.put(documento.sugestao().id(), documento);
+            return new Particao(contatos.values());
+        }
+
+        // null quando a loja fica sem contatos
+        Particao sem(Long id) {
+            Map<Long, Documento> contatos = mapa();
+            contatos.remove(id);
+            return contatos.isEmpty() ? null : new Particao(contatos.values());
+        }
+
+        private Map<Long, Documento> mapa() {
+            Map<Long, Documento> contatos = new HashMap<>();
+            for (Documento documento : documentos) {
+                contatos.put(documento.sugestao().id(), documento);
+            }
+            return contatos;
+        }
+    }
+
+    private record Candidato(Documento documento, int pontuacao) {
+    }
+
+    // Maior pontuação primeiro; no empate, nomes mais curtos (mais próximos do digitado) e ordem alfabética
+    private static final Comparator<Candidato> RANKING = Comparator.comparingInt(Candidato::pontuacao).reversed()
+        .thenComparingInt(candidato -> candidato.documento().nome().length())
+        .thenComparing(candidato -> candidato.documento().nome())
+        .thenComparing(candidato -> candidato.documento().sugestao().id());
+
+    // Carregar o índice a partir do banco na subida da aplicação
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregar() {
+        synchronized (escrita) {
+            gravadosDuranteCarga = new HashSet<>();
+        }
+        List<ContatoSugestao> contatos = new ArrayList<>();
+        long ultimoId = 0L;
+        List<Object[]> lote;
+        do {
+            lote = contatoRepository.findDadosIndiceApos(ultimoId, Limit.of(TAMANHO_LOTE_CARGA));
+            for (Object[] linha : lote) {
+                contatos.add(new ContatoSugestao((Long) linha[0], (String) linha[1], (String) linha[2],
+                    (String) linha[3], (Cargo) linha[4], (Long) linha[5]));
+                ultimoId = (Long) linha[0];
+            }
+        } while (lote.size() == TAMANHO_LOTE_CARGA);
+
+        synchronized (escrita) {
+            Set<Long> gravados = gravadosDuranteCarga;
+            gravadosDuranteCarga = null;
+            incluirSemLock(contatos.stream().filter(contato -> !gravados.contains(contato.id())).toList());
+        }
+        log.info("Índice de autocomplete de contatos carregado com {} contatos em {} lojas", tamanho(), particoes.size());
+    }
+
+    // Substituir todo o conteúdo do índice
+    public void recarregar(Collection<ContatoSugestao> contatos) {
+        synchronized (escrita) {
+            particoes.clear();
+            lojaPorContato.clear();
+            incluirSemLock(contatos);
+        }
+    }
+
+    // Acrescenta contatos ainda fora do índice, montando cada partição uma vez só
+    private void incluirSemLock(Collection<ContatoSugestao> contatos) {
+        Map<Long, List<Documento>> porLoja = new HashMap<>();
+        for (ContatoSugestao contato : contatos) {
+            porLoja.computeIfAbsent(contato.lojaId(), l -> new ArrayList<>()).add(Documento.de(contato));
+        }
+        porLoja.forEach((lojaId, documentos) -> {
+            Particao atual = particoes.get(lojaId);
+            if (atual != null) {
+                documentos.addAll(Arrays.asList(atual.documentos));
+            }
+            particoes.put(lojaId, new Particao(documentos));
+        });
+        contatos.forEach(contato -> lojaPorContato.put(contato.id(), contato.lojaId()));
+    }
+
+    // Incluir ou substituir um contato no índice (inclusive ao mudar de loja)
+    public void indexar(Long id, String nome, String email, String matricula, Cargo cargo, Long lojaId) {
+        Documento documento = Documento.de(new ContatoSugestao(id, nome, email, matricula, cargo, lojaId));
+        synchronized (escrita) {
+            if (gravadosDuranteCarga != null) {
+                gravadosDuranteCarga.add(id);
+            }
+            Long lojaAnterior = lojaPorContato.get(id);
+            if (lojaAnterior != null && !lojaAnterior.equals(lojaId)) {
+                removerSemLock(id);
+            }
+            Particao atual = particoes.get(lojaId);
+            particoes.put(lojaId, atual != null ? atual.com(documento) : new Particao(List.of(documento)));
+            lojaPorContato.put(id, lojaId);
+        }
+    }
+
+    // Retirar um contato do índice
+    public void remover(Long id) {
+        synchronized (escrita) {
+            if (gravadosDuranteCarga != null) {
+                gravadosDuranteCarga.add(id);
+            }
+            removerSemLock(id);
+        }
+    }
+
+    private void removerSemLock(Long id) {
+        Long lojaId = lojaPorContato.remove(id);
+        if (lojaId == null) {
+            return;
+        }
+        Particao restante = particoes.get(lojaId).sem(id);
+        if (restante == null) {
+            particoes.remove(lojaId);
+        } else {
+            particoes.put(lojaId, restante);
+        }
+    }
+
+    // Melhores contatos da loja para o texto digitado, opcionalmente de um cargo. A loja é obrigatória: sem ela a
+    // consulta leria todas as partições, com custo proporcional aos contatos que casam em todas as lojas
+    public List<ContatoSugestao> sugerir(String texto, Long lojaId, Cargo cargo, int limite) {
+        if (lojaId == null) {
+            throw new IllegalArgumentException("Informe a loja do autocomplete");
+        }
+        String consulta = TextoNormalizador.dobrar(texto).strip();
+        Set<String> palavras = new LinkedHashSet<>();
+        separarPalavras(consulta, palavras);
+        Particao particao = particoes.get(lojaId);
+        if (palavras.isEmpty() || particao == null) {
+            return List.of();
+        }
+
+        BitSet todasAsPalavras = null;
+        for (String palavra : palavras) {
+            BitSet comPrefixo = particao.comPrefixo(palavra);
+            if (todasAsPalavras == null) {
+                todasAsPalavras = comPrefixo;
+            } else {
+                todasAsPalavras.and(comPrefixo);
+            }
+        }
+        // Os limite melhores até aqui, com o pior no topo da fila. Abaixo do tamanho mínimo só as palavras contam;
+        // a partir dele, qualquer contato da loja pode ter o trecho
+        PriorityQueue<Candidato> melhores = new PriorityQueue<>(limite + 1, RANKING.reversed());
+        boolean porTrecho = consulta.length() >= TAMANHO_MINIMO_TRECHO;
+        for (int i = porTrecho ? 0 : todasAsPalavras.nextSetBit(0); i >= 0 && i < particao.documentos.length;
+             i = porTrecho ? i + 1 : todasAsPalavras.nextSetBit(i + 1)) {
+            Documento documento = particao.documentos[i];
+            if (cargo != null && cargo != documento.sugestao().cargo()) {
+                continue;
+            }
+            int pontuacao = pontuar(documento, consulta);
+            if (todasAsPalavras.get(i)) {
+                pontuacao = Math.max(pontuacao, TODAS_AS_PALAVRAS);
+            }
+            if (pontuacao > 0) {
+                melhores.add(new Candidato(documento, pontuacao));
+                if (melhores.size() > limite) {
+                    melhores.poll();
+                }
+            }
+        }
+
+        return melhores.stream()
+            .sorted(RANKING)
+            .map(candidato -> candidato.documento().sugestao())
+            .toList();
+    }
+
+    private static int pontuar(Documento documento, String consulta) {
+        return Math.max(pontuarCampo(documento.nome(), consulta, PESO_NOME),
+            Math.max(pontuarCampo(documento.matricula(), consulta, PESO_MATRICULA),
+                pontuarCampo(documento.email(), consulta, PESO_EMAIL)));
+    }
+
+    private static int pontuarCampo(String campo, String consulta, int peso) {
+        if (campo.isEmpty()) {
+            return 0;
+        }
+        if (campo.equals(consulta)) {
+            return CAMPO_IGUAL + peso;
+        }
+        if (campo.startsWith(consulta)) {
+            return CAMPO_PREFIXO + peso;
+        }
+        int posicao = consulta.length() >= TAMANHO_MINIMO_TRECHO ? campo.indexOf(consulta) : -1;
+        if (posicao < 0) {
+            return 0;
+        }
+        // Trecho no início de uma palavra do campo (depois de espaço, ponto, @...) ou que já começa pelo separador
+        boolean inicioDePalavra = !Character.isLetterOrDigit(consulta.charAt(0));
+        for (; posicao > 0 && !inicioDePalavra; posicao = campo.indexOf(consulta, posicao + 1)) {
+            inicioDePalavra = !Character.isLetterOrDigit(campo.charAt(posicao - 1));
+        }
+        return (inicioDePalavra ? PALAVRA_PREFIXO : TRECHO) + peso;
+    }
+
+    private static void separarPalavras(String texto, Set<String> destino) {
+        for (String palavra : SEPARADORES.split(texto)) {
+            if (!palavra.isEmpty()) {
+                destino.add(palavra);
+            }
+        }
+    }
+
+    public int tamanho() {
+        return lojaPorContato.size();
+    }
+}
@@ -0,0 +1,38 @@
+package com.notasbko.service;
+
+import com.notasbko.entity.Contato;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+// Mantém o índice de autocomplete sincronizado com as gravações de Contato
+@Component
+public class ContatoIndiceListener {
+    
+    // Lazy: o índice depende do ContatoRepository, que só existe depois do EntityManagerFactory
+    @Autowired
+    @Lazy
+    private ContatoIndiceAutocomplete indice;
+    
+    @PostPersist
+    @PostUpdate
+    public void aposSalvar(Contato contato) {
+        Long id = contato.getId();
+        String nome = contato.getNome();
+        String email = contato.getEmail();
+        String matricula = contato.getMatricula();
+        Contato.Cargo cargo = contato.getCargo();
+        // getId() de um proxy LAZY não inicializa a loja
+        Long lojaId = contato.getLoja().getId();
+        AposCommit.executar(() -> indice.indexar(id, nome, email, matricula, cargo, lojaId));
+    }
+    
+    @PostRemove
+    public void aposRemover(Contato contato) {
+        Long id = contato.getId();
+        AposCommit.executar(() -> indice.remover(id));
+    }
+}
@@ -0,0 +1,140 @@
+package com.notasbko.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.notasbko.dto.LembreteDTO;
+import com.notasbko.dto.NotaDTO;
+import com.notasbko.repository.LembreteRepository;
+import com.notasbko.repository.NotaRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+// Exportação de notas e lembretes em NDJSON ou CSV, escrevendo linha a linha enquanto o ResultSet é percorrido
+@Service
+public class ExportadorDados {
+
+    // Linhas escritas entre um flush e outro da resposta
+    private static final int LINHAS_POR_FLUSH = 500;
+
+    private static final List<String> COLUNAS_NOTA = List.of("id", "titulo", "dataNota", "status", "categoriaId",
+        "categoriaNome", "lojaId", "lojaNome", "dataCriacao", "dataAtualizacao", "anotacoes");
+
+    private static final List<String> COLUNAS_LEMBRETE = List.of("id", "titulo", "descricao", "dataHoraLembrete",
+        "ativo", "notificado", "notaId", "notaTitulo", "lojaId", "dataCriacao", "dataAtualizacao");
+
+    @Autowired
+    private NotaRepository notaRepository;
+
+    @Autowired
+    private LembreteRepository lembreteRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    public enum Formato {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extensao;
+
+        Formato(String contentType, String extensao) {
+            this.contentType = contentType;
+            this.extensao = extensao;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtensao() {
+            return extensao;
+        }
+
+        // IllegalArgumentException para formatos desconhecidos
+        public static Formato de(String valor) {
+            return valueOf(valor.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+
+    // A transação (somente leitura) mantém a conexão aberta enquanto o Stream é consumido
+    @Transactional(readOnly = true)
+    public void exportarNotas(Long lojaId, Formato formato, OutputStream saida) throws IOException {
+        try (Stream<NotaDTO> notas = notaRepository.streamParaExportacao(lojaId)) {
+            escrever(notas, formato, saida, COLUNAS_NOTA, nota -> new Object[] {
+                nota.id(), nota.titulo(), nota.dataNota(), nota.status(), nota.categoriaId(), nota.categoriaNome(),
+                nota.lojaId(), nota.lojaNome(), nota.dataCriacao(), nota.dataAtualizacao(), nota.anotacoes()
+            });
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void exportarLembretes(Long lojaId, Formato formato, OutputStream saida) throws IOException {
+        try (Stream<LembreteDTO> lembretes = lembreteRepository.streamParaExportacao(lojaId)) {
+            escrever(lembretes, formato, saida, COLUNAS_LEMBRETE, lembrete -> new Object[] {
+                lembrete.id(), lembrete.titulo(), lembrete.descricao(), lembrete.dataHoraLembrete(), lembrete.ativo(),
+                lembrete.notificado(), lembrete.notaId(), lembrete.notaTitulo(), lembrete.lojaId(),
+                lembrete.dataCriacao(), lembrete.dataAtualizacao()
+            });
+        }
+    }
+
+    private <T> void escrever(Stream<T> linhas, Formato formato, OutputStream saida, List<String> colunas,
+                              Function<T, Object[]> valores) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(saida, StandardCharsets.UTF_8));
+        if (formato == Formato.CSV) {
+            writer.write(String.join(",", colunas));
+            writer.write("\r\n");
+        }
+
+        int escritas = 0;
+        Iterator<T> iterator = linhas.iterator();
+        while (iterator.hasNext()) {
+            T linha = iterator.next();
+            if (formato == Formato.CSV) {
+                escreverCsv(writer, valores.apply(linha));
+            } else {
+                writer.write(objectMapper.writeValueAsString(linha));
+                writer.write('\n');
+            }
+
+            // Enviar ao cliente em blocos em vez de acumular a resposta inteira
+            if (++escritas % LINHAS_POR_FLUSH == 0) {
+                writer.flush();
+            }
+        }
+        writer.flush();
+    }
+
+    private static void escreverCsv(Writer writer, Object[] valores) throws IOException {
+        for (int i = 0; i < valores.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            if (valores[i] != null) {
+                writer.write(campoCsv(valores[i].toString()));
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    // Aspas somente quando o valor contém separador, aspas ou quebra de linha (RFC 4180)
+    private static String campoCsv(String valor) {
+        if (valor.indexOf(',') < 0 && valor.indexOf('"') < 0 && valor.indexOf('\n') < 0 && valor.indexOf('\r') < 0) {
+            return valor;
+        }
+        return '"' + valor.replace("\"", "\"\"") + '"';
+    }
+}
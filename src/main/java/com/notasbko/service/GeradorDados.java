@@ -0,0 +1,365 @@
+package com.notasbko.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+// Gerador de massa de dados sintética (lojas, categorias, notas, lembretes e contatos) para testes de desempenho.
+// Grava direto por JDBC em lotes, com ids explícitos, e é determinístico pela semente e pela data base (as datas das
+// notas e lembretes são relativas a ela, não ao relógio).
+// Os índices secundários de notas e lembretes são retirados durante a carga e recriados no fim (ordenar uma vez
+// custa bem menos que manter cada índice a cada linha)
+public class GeradorDados {
+
+    private static final Logger log = LoggerFactory.getLogger(GeradorDados.class);
+
+    private static final int TAMANHO_LOTE = 1000;
+    private static final int LINHAS_POR_COMMIT = 50_000;
+    private static final List<String> TABELAS_SEM_INDICES_NA_CARGA = List.of("NOTAS", "LEMBRETES");
+
+    // allocationSize de notas_seq e lembretes_seq (Nota, Lembrete e V1)
+    private static final int BLOCO_SEQUENCIA = 50;
+
+    // Matrículas T + 7 dígitos: o índice do contato é embaralhado por uma permutação de 0..9999999
+    private static final int MATRICULAS_POSSIVEIS = 10_000_000;
+    private static final int MULTIPLICADOR_MATRICULA = 7_654_321;
+
+    static final String[] VOCABULARIO = {
+        "estoque", "reposição", "vitrine", "pagamento", "fornecedor", "inventário", "promoção", "entrega",
+        "troca", "balanço", "limpeza", "manutenção", "cliente", "caixa", "etiqueta", "gôndola", "pedido",
+        "devolução", "auditoria", "treinamento", "escala", "uniforme", "campanha", "conferência"
+    };
+
+    private static final String[] CATEGORIAS = {
+        "Geral", "Estoque", "Financeiro", "Vendas", "Manutenção", "Pessoal", "Marketing", "Logística",
+        "Atendimento", "Fornecedores"
+    };
+
+    private static final String[] CIDADES = {
+        "São Paulo", "Rio de Janeiro", "Belo Horizonte", "Curitiba", "Porto Alegre", "Salvador", "Recife",
+        "Fortaleza", "Goiânia", "Campinas", "Florianópolis", "Manaus"
+    };
+
+    private static final String[] NOMES = {
+        "Ana", "Bruno", "Carla", "Diego", "Eduarda", "Felipe", "Gabriela", "Henrique", "Isabela", "João",
+        "Larissa", "Marcos", "Natália", "Otávio", "Patrícia", "Rafael", "Sofia", "Thiago", "Vanessa", "William"
+    };
+
+    private static final String[] SOBRENOMES = {
+        "Silva", "Santos", "Oliveira", "Souza", "Lima", "Pereira", "Costa", "Rodrigues", "Almeida", "Nascimento",
+        "Carvalho", "Ferreira", "Gomes", "Martins", "Araújo", "Ribeiro"
+    };
+
+    // Distribuição das notas por status: a maior parte já concluída
+    private static final String[] STATUS = {"PENDENTE", "EM_ANDAMENTO", "CONCLUIDO"};
+    private static final int[] PESO_STATUS = {20, 15, 65};
+
+    // Data base padrão da massa; mudar o valor muda os dados gerados para todas as sementes
+    public static final LocalDateTime BASE_PADRAO = LocalDateTime.of(2026, 1, 1, 0, 0);
+
+    public record Volumes(int lojas, int categoriasPorLoja, int notas, int lembretes, int contatosPorLoja,
+                          long semente, LocalDateTime base) {
+
+        public Volumes {
+            if (base == null || lojas < 1 || categoriasPorLoja < 1 || notas < 0 || lembretes < 0 || lembretes > notas
+                    || contatosPorLoja < 0 || (long) lojas * contatosPorLoja > MATRICULAS_POSSIVEIS) {
+                throw new IllegalArgumentException("Volumes inválidos para o gerador de dados: " + this);
+            }
+        }
+    }
+
+    private final Volumes volumes;
+    private final LocalDateTime base;
+
+    public GeradorDados(Volumes volumes) {
+        this.volumes = volumes;
+        this.base = volumes.base().truncatedTo(ChronoUnit.MINUTES);
+    }
+
+    // Popular o banco (somente se ainda não houver lojas), com commits a cada LINHAS_POR_COMMIT linhas. Se a carga
+    // falhar no meio, as tabelas são esvaziadas (os commits intermediários já gravaram parte delas), para que a próxima
+    // execução não encontre lojas e pule a geração com a massa pela metade; os índices voltam em qualquer caso
+    public void gerar(Connection conexao) throws SQLException {
+        try (Statement consulta = conexao.createStatement();
+             ResultSet existentes = consulta.executeQuery("SELECT COUNT(*) FROM lojas")) {
+            if (existentes.next() && existentes.getLong(1) > 0) {
+                log.info("Gerador de dados ignorado: o banco já possui lojas");
+                return;
+            }
+        }
+
+        long inicio = System.nanoTime();
+        boolean autoCommit = conexao.getAutoCommit();
+        List<String> indices = retirarIndices(conexao);
+        int lembretes;
+        int contatos;
+        try (Statement integridade = conexao.createStatement()) {
+            // Os ids das FKs são gerados consistentes, então a verificação de cada linha fica desligada na carga
+            integridade.execute("SET REFERENTIAL_INTEGRITY FALSE");
+            conexao.setAutoCommit(false);
+            Random random = new Random(volumes.semente());
+            gravarLojasECategorias(conexao);
+            lembretes = gravarNotasELembretes(conexao, random);
+            contatos = gravarContatos(conexao, random);
+            conexao.commit();
+        } catch (SQLException | RuntimeException | Error e) {
+            desfazer(conexao, e);
+            throw e;
+        } finally {
+            conexao.setAutoCommit(autoCommit);
+            try (Statement integridade = conexao.createStatement()) {
+                integridade.execute("SET REFERENTIAL_INTEGRITY TRUE");
+            }
+            recriarIndices(conexao, indices);
+        }
+        ajustarIdentidades(conexao, lembretes, contatos);
+
+        log.info("Gerador de dados: {} lojas, {} categorias, {} notas, {} lembretes e {} contatos em {} ms",
+            volumes.lojas(), (long) volumes.lojas() * volumes.categoriasPorLoja(), volumes.notas(), lembretes,
+            contatos, (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    private void gravarLojasECategorias(Connection conexao) throws SQLException {
+        Timestamp criacao = Timestamp.valueOf(base);
+        try (PreparedStatement loja = conexao.prepareStatement(
+                "INSERT INTO lojas (id, nome, descricao, endereco, telefone, data_criacao) VALUES (?, ?, ?, ?, ?, ?)");
+             PreparedStatement categoria = conexao.prepareStatement(
+                "INSERT INTO categorias (id, nome, descricao, loja_id, data_criacao) VALUES (?, ?, ?, ?, ?)")) {
+            for (int l = 1; l <= volumes.lojas(); l++) {
+                String cidade = CIDADES[l % CIDADES.length];
+                loja.setLong(1, l);
+                loja.setString(2, "Loja " + cidade + " " + l);
+                loja.setString(3, "Unidade " + l);
+                loja.setString(4, "Avenida Central, " + l + " - " + cidade);
+                loja.setString(5, String.format("(11) 3%03d-%04d", l % 1000, l % 10000));
+                loja.setTimestamp(6, criacao);
+                loja.addBatch();
+
+                for (int c = 1; c <= volumes.categoriasPorLoja(); c++) {
+                    String nome = CATEGORIAS[(c - 1) % CATEGORIAS.length];
+                    categoria.setLong(1, categoriaId(l, c));
+                    categoria.setString(2, c > CATEGORIAS.length ? nome + " " + c : nome);
+                    categoria.setString(3, c == 1 ? "Categoria padrão" : null);
+                    categoria.setLong(4, l);
+                    categoria.setTimestamp(5, criacao);
+                    categoria.addBatch();
+                }
+                if (l % TAMANHO_LOTE == 0) {
+                    loja.executeBatch();
+                    categoria.executeBatch();
+                }
+            }
+            loja.executeBatch();
+            categoria.executeBatch();
+        }
+    }
+
+    private int gravarNotasELembretes(Connection conexao, Random random) throws SQLException {
+        Timestamp criacao = Timestamp.valueOf(base);
+        int lembretes = 0;
+        try (PreparedStatement nota = conexao.prepareStatement(
+                "INSERT INTO notas (id, titulo, data_nota, anotacoes, status, categoria_id, loja_id, data_criacao) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?)");
+             PreparedStatement lembrete = conexao.prepareStatement(
+                "INSERT INTO lembretes (id, titulo, descricao, data_hora_lembrete, ativo, notificado, nota_id, loja_id, " +
+                "data_criacao) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+            for (int n = 1; n <= volumes.notas(); n++) {
+                // Poucas lojas concentram a maior parte das notas; datas mais densas perto da data base
+                long lojaId = 1 + (long) (volumes.lojas() * enviesado(random));
+                LocalDateTime dataNota = base.minusMinutes((long) (2 * 365 * 24 * 60 * enviesado(random)));
+                nota.setLong(1, n);
+                nota.setString(2, capitalizar(frase(random, 2 + random.nextInt(3))));
+                nota.setTimestamp(3, Timestamp.valueOf(dataNota));
+                nota.setString(4, random.nextInt(10) == 0 ? null : frase(random, 6 + random.nextInt(10)));
+                nota.setString(5, status(random));
+                nota.setLong(6, categoriaId(lojaId, 1 + random.nextInt(volumes.categoriasPorLoja())));
+                nota.setLong(7, lojaId);
+                nota.setTimestamp(8, criacao);
+                nota.addBatch();
+
+                // Amostragem sequencial: exatamente volumes.lembretes() notas recebem lembrete
+                if (random.nextInt(volumes.notas() - n + 1) < volumes.lembretes() - lembretes) {
+                    // Entre 60 dias atrás e 60 dias à frente, concentrados nos próximos dias; vencidos já notificados
+                    double desvio = enviesado(random) * 60 * 24 * 60;
+                    LocalDateTime dataHora = base.plusMinutes(random.nextInt(4) == 0 ? -(long) desvio : (long) desvio + 1);
+                    lembrete.setLong(1, ++lembretes);
+                    lembrete.setString(2, "Lembrete: " + frase(random, 2));
+                    lembrete.setString(3, random.nextBoolean() ? frase(random, 5) : null);
+                    lembrete.setTimestamp(4, Timestamp.valueOf(dataHora));
+                    lembrete.setBoolean(5, random.nextInt(100) < 85);
+                    lembrete.setBoolean(6, dataHora.isBefore(base));
+                    lembrete.setLong(7, n);
+                    lembrete.setLong(8, lojaId);
+                    lembrete.setTimestamp(9, criacao);
+                    lembrete.addBatch();
+                }
+
+                if (n % TAMANHO_LOTE == 0) {
+                    nota.executeBatch();
+                    lembrete.executeBatch();
+                }
+                if (n % LINHAS_POR_COMMIT == 0) {
+                    conexao.commit();
+                }
+            }
+            nota.executeBatch();
+            lembrete.executeBatch();
+        }
+        return lembretes;
+    }
+
+    private int gravarContatos(Connection conexao, Random random) throws SQLException {
+        Timestamp criacao = Timestamp.valueOf(base);
+        int deslocamento = random.nextInt(MATRICULAS_POSSIVEIS);
+        int contatos = 0;
+        try (PreparedStatement contato = conexao.prepareStatement(
+                "INSERT INTO contatos (id, nome, matricula, cargo, telefone, email, loja_id, data_criacao, data_atualizacao) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+            for (int l = 1; l <= volumes.lojas(); l++) {
+                for (int i = 0; i < volumes.contatosPorLoja(); i++) {
+                    String nome = NOMES[random.nextInt(NOMES.length)];
+                    String sobrenome = SOBRENOMES[random.nextInt(SOBRENOMES.length)];
+                    contato.setLong(1, ++contatos);
+                    contato.setString(2, nome + " " + sobrenome);
+                    contato.setString(3, matricula(contatos - 1, deslocamento));
+                    contato.setString(4, i == 0 ? "PROPRIETARIO" : i == 1 ? "GERENTE" : "VENDEDOR");
+                    contato.setString(5, String.format("(11) 9%04d-%04d", random.nextInt(10000), random.nextInt(10000)));
+                    contato.setString(6, TextoNormalizador.dobrar(nome + "." + sobrenome) + contatos + "@loja" + l + ".com.br");
+                    contato.setLong(7, l);
+                    contato.setTimestamp(8, criacao);
+                    contato.setTimestamp(9, criacao);
+                    contato.addBatch();
+                    if (contatos % TAMANHO_LOTE == 0) {
+                        contato.executeBatch();
+                    }
+                }
+            }
+            contato.executeBatch();
+        }
+        return contatos;
+    }
+
+    // Guardar e remover os índices secundários declarados pelas migrações (os que sustentam PK, UNIQUE e FK ficam)
+    private List<String> retirarIndices(Connection conexao) throws SQLException {
+        Map<String, List<String>> colunas = new LinkedHashMap<>();
+        Map<String, String> tabelas = new LinkedHashMap<>();
+        try (PreparedStatement consulta = conexao.prepareStatement(
+                "SELECT i.INDEX_NAME, i.TABLE_NAME, c.COLUMN_NAME, c.ORDERING_SPECIFICATION " +
+                "FROM INFORMATION_SCHEMA.INDEXES i JOIN INFORMATION_SCHEMA.INDEX_COLUMNS c " +
+                "ON c.INDEX_SCHEMA = i.INDEX_SCHEMA AND c.INDEX_NAME = i.INDEX_NAME " +
+                "WHERE i.TABLE_SCHEMA = SCHEMA() AND i.INDEX_TYPE_NAME = 'INDEX' AND NOT i.IS_GENERATED " +
+                "AND i.TABLE_NAME IN (?, ?) ORDER BY i.INDEX_NAME, c.ORDINAL_POSITION")) {
+            consulta.setString(1, TABELAS_SEM_INDICES_NA_CARGA.get(0));
+            consulta.setString(2, TABELAS_SEM_INDICES_NA_CARGA.get(1));
+            try (ResultSet linhas = consulta.executeQuery()) {
+                while (linhas.next()) {
+                    String indice = linhas.getString(1);
+                    tabelas.put(indice, linhas.getString(2));
+                    colunas.computeIfAbsent(indice, i -> new ArrayList<>())
+                        .add(linhas.getString(3) + ("DESC".equals(linhas.getString(4)) ? " DESC" : ""));
+                }
+            }
+        }
+
+        List<String> definicoes = new ArrayList<>();
+        try (Statement ddl = conexao.createStatement()) {
+            for (Map.Entry<String, List<String>> indice : colunas.entrySet()) {
+                definicoes.add("CREATE INDEX " + indice.getKey() + " ON " + tabelas.get(indice.getKey())
+                    + " (" + String.join(", ", indice.getValue()) + ")");
+                ddl.execute("DROP INDEX " + indice.getKey());
+            }
+        }
+        return definicoes;
+    }
+
+    private void recriarIndices(Connection conexao, List<String> definicoes) throws SQLException {
+        try (Statement ddl = conexao.createStatement()) {
+            for (String definicao : definicoes) {
+                ddl.execute(definicao);
+            }
+        }
+    }
+
+    // Esvaziar as tabelas da carga; uma falha aqui fica registrada junto com a que interrompeu a carga
+    private void desfazer(Connection conexao, Throwable causa) {
+        try (Statement ddl = conexao.createStatement()) {
+            conexao.rollback();
+            // Com a integridade referencial ainda desligada pela carga, o TRUNCATE aceita tabelas referenciadas
+            for (String tabela : List.of("lembretes", "notas", "contatos", "categorias", "lojas")) {
+                ddl.execute("TRUNCATE TABLE " + tabela);
+            }
+            conexao.commit();
+            log.warn("Gerador de dados interrompido; as tabelas foram esvaziadas");
+        } catch (SQLException falha) {
+            causa.addSuppressed(falha);
+        }
+    }
+
+    // Identidades e sequências continuam depois dos ids gravados. As sequências são lidas pelo otimizador pooled do
+    // Hibernate (allocationSize 50), que usa o valor lido como fim do bloco: o reinício soma o bloco inteiro
+    private void ajustarIdentidades(Connection conexao, int lembretes, int contatos) throws SQLException {
+        try (Statement ajuste = conexao.createStatement()) {
+            ajuste.execute("ALTER TABLE lojas ALTER COLUMN id RESTART WITH " + (volumes.lojas() + 1));
+            ajuste.execute("ALTER TABLE categorias ALTER COLUMN id RESTART WITH "
+                + ((long) volumes.lojas() * volumes.categoriasPorLoja() + 1));
+            ajuste.execute("ALTER TABLE contatos ALTER COLUMN id RESTART WITH " + (contatos + 1));
+            ajuste.execute("ALTER SEQUENCE notas_seq RESTART WITH " + (volumes.notas() + BLOCO_SEQUENCIA));
+            ajuste.execute("ALTER SEQUENCE lembretes_seq RESTART WITH " + (lembretes + BLOCO_SEQUENCIA));
+        }
+    }
+
+    private long categoriaId(long lojaId, int indice) {
+        return (lojaId - 1) * volumes.categoriasPorLoja() + indice;
+    }
+
+    // Valor em [0, 1) concentrado perto de zero
+    private static double enviesado(Random random) {
+        double valor = random.nextDouble();
+        return valor * valor;
+    }
+
+    private static String status(Random random) {
+        int sorteio = random.nextInt(100);
+        for (int i = 0; i < STATUS.length; i++) {
+            sorteio -= PESO_STATUS[i];
+            if (sorteio < 0) {
+                return STATUS[i];
+            }
+        }
+        return STATUS[STATUS.length - 1];
+    }
+
+    // Multiplicador primo com 10^7: índices distintos geram matrículas distintas
+    private static String matricula(int indice, int deslocamento) {
+        long embaralhado = ((long) indice * MULTIPLICADOR_MATRICULA + deslocamento) % MATRICULAS_POSSIVEIS;
+        return String.format("T%07d", embaralhado);
+    }
+
+    private static String frase(Random random, int palavras) {
+        StringBuilder frase = new StringBuilder();
+        for (int i = 0; i < palavras; i++) {
+            if (i > 0) {
+                frase.append(' ');
+            }
+            frase.append(VOCABULARIO[random.nextInt(VOCABULARIO.length)]);
+        }
+        return frase.toString();
+    }
+
+    private static String capitalizar(String texto) {
+        return Character.toUpperCase(texto.charAt(0)) + texto.substring(1);
+    }
+}
@@ -0,0 +1,68 @@
+package com.notasbko.service;
+
+import org.flywaydb.core.api.callback.Callback;
+import org.flywaydb.core.api.callback.Context;
+import org.flywaydb.core.api.callback.Event;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+
+// Perfil dados-sinteticos: popula o banco logo depois das migrações do Flyway, antes da carga dos índices,
+// contadores e agendador em memória (ApplicationReadyEvent)
+@Component
+@Profile("dados-sinteticos")
+public class GeradorDadosCallback implements Callback {
+
+    @Value("${notasbko.gerador.lojas}")
+    private int lojas;
+
+    @Value("${notasbko.gerador.categorias-por-loja}")
+    private int categoriasPorLoja;
+
+    @Value("${notasbko.gerador.notas}")
+    private int notas;
+
+    @Value("${notasbko.gerador.lembretes}")
+    private int lembretes;
+
+    @Value("${notasbko.gerador.contatos-por-loja}")
+    private int contatosPorLoja;
+
+    @Value("${notasbko.gerador.semente}")
+    private long semente;
+
+    // Data base da massa (ISO, ex.: 2026-01-01T00:00); sem valor, GeradorDados.BASE_PADRAO
+    @Value("${notasbko.gerador.base:}")
+    private String base;
+
+    @Override
+    public boolean supports(Event event, Context context) {
+        return event == Event.AFTER_MIGRATE;
+    }
+
+    // O gerador controla os próprios commits e executa DDL (retirada e recriação de índices)
+    @Override
+    public boolean canHandleInTransaction(Event event, Context context) {
+        return false;
+    }
+
+    @Override
+    public void handle(Event event, Context context) {
+        GeradorDados gerador = new GeradorDados(
+            new GeradorDados.Volumes(lojas, categoriasPorLoja, notas, lembretes, contatosPorLoja, semente,
+                base.isBlank() ? GeradorDados.BASE_PADRAO : LocalDateTime.parse(base)));
+        try {
+            gerador.gerar(context.getConnection());
+        } catch (SQLException e) {
+            throw new IllegalStateException("Falha ao gerar a massa de dados sintética", e);
+        }
+    }
+
+    @Override
+    public String getCallbackName() {
+        return "geradorDados";
+    }
+}
@@ -0,0 +1,7 @@
+package com.notasbko.service;
+
+import com.notasbko.dto.AtividadeLembrete;
+
+// Evento publicado pelo agendador quando um lembrete vence e é marcado como notificado
+public record LembreteDisparado(AtividadeLembrete lembrete) {
+}
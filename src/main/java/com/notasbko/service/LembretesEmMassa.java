@@ -0,0 +1,238 @@
+package com.notasbko.service;
+
+import com.notasbko.dto.AtividadeLembrete;
+import com.notasbko.dto.FiltroLembretes;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Alterações de estado de vários lembretes com UPDATEs JPQL em lote. As linhas do filtro são lidas com lock de escrita
+// e o UPDATE altera exatamente esses ids, em blocos, para que uma gravação concorrente não fique de fora das estruturas
+// em memória. O UPDATE em massa não passa pelos listeners JPA, então essas estruturas são acertadas aqui, depois do
+// commit da mesma transação.
+@Service
+public class LembretesEmMassa {
+
+    // Máximo de lembretes alterados por operação; acima disso o filtro precisa ser refinado
+    static final int MAXIMO_AFETADOS = 10_000;
+    // Maior adiamento aceito, em minutos (um ano)
+    static final long MAXIMO_MINUTOS_ADIAR = 365L * 24 * 60;
+    private static final int TAMANHO_LOTE = 500;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private AgendadorLembretes agendador;
+
+    @Autowired
+    private AtividadesRecentes atividadesRecentes;
+
+    @Autowired
+    private ContadoresDashboard contadores;
+
+    @Autowired
+    private CanalLembretes canal;
+
+    private record Afetado(AtividadeLembrete lembrete, boolean ativo, boolean notificado) {
+    }
+
+    // Marcar como notificados; retorna o número de linhas alteradas
+    @Transactional
+    public int marcarNotificados(FiltroLembretes filtro) {
+        Map<String, Object> parametros = new HashMap<>();
+        String where = where(filtro, parametros) + " AND l.notificado = false";
+        List<Afetado> afetados = afetados(where, parametros);
+
+        int atualizados = atualizar("l.notificado = true, l.dataAtualizacao = :agora",
+            Map.of("agora", LocalDateTime.now()), afetados);
+
+        AposCommit.executar(() -> afetados.forEach(afetado -> {
+            agendador.cancelar(afetado.lembrete().id());
+            atividadesRecentes.lembreteRemovido(afetado.lembrete().id());
+            canal.publicar(CanalLembretes.ATUALIZADO, afetado.lembrete());
+        }));
+        return atualizados;
+    }
+
+    // Marcar como notificados os lembretes disparados pelo agendador que continuam ativos, pendentes e vencidos;
+    // retorna os ids alterados. Os demais foram desativados, adiados, notificados ou removidos depois de entrar na roda
+    @Transactional
+    public Set<Long> marcarDisparados(Collection<Long> ids, LocalDateTime agora) {
+        Map<String, Object> parametros = new HashMap<>();
+        parametros.put("ids", ids);
+        parametros.put("agora", agora);
+        List<Afetado> afetados = afetados(
+            "WHERE l.id IN :ids AND l.ativo = true AND l.notificado = false AND l.dataHoraLembrete <= :agora",
+            parametros);
+
+        atualizar("l.notificado = true, l.dataAtualizacao = :agora", Map.of("agora", agora), afetados);
+
+        Set<Long> marcados = new HashSet<>();
+        afetados.forEach(afetado -> marcados.add(afetado.lembrete().id()));
+        return marcados;
+    }
+
+    // Ativar ou desativar; retorna o número de linhas alteradas
+    @Transactional
+    public int alterarAtivo(FiltroLembretes filtro, boolean ativo) {
+        Map<String, Object> parametros = new HashMap<>();
+        parametros.put("ativo", ativo);
+        String where = where(filtro, parametros) + " AND l.ativo <> :ativo";
+        List<Afetado> afetados = afetados(where, parametros);
+
+        int atualizados = atualizar("l.ativo = :ativo, l.dataAtualizacao = :agora",
+            Map.of("ativo", ativo, "agora", LocalDateTime.now()), afetados);
+
+        AposCommit.executar(() -> afetados.forEach(afetado -> {
+            AtividadeLembrete lembrete = afetado.lembrete();
+            contadores.lembreteAlterado(!ativo, ativo);
+            if (ativo && !afetado.notificado()) {
+                agendador.agendar(lembrete);
+                atividadesRecentes.lembreteSalvo(lembrete, true);
+            } else {
+                agendador.cancelar(lembrete.id());
+                atividadesRecentes.lembreteRemovido(lembrete.id());
+            }
+            canal.publicar(CanalLembretes.ATUALIZADO, lembrete);
+        }));
+        return atualizados;
+    }
+
+    // Adiar de 1 minuto a um ano e voltar a pendente de notificação; retorna o número de linhas alteradas
+    @Transactional
+    public int adiar(FiltroLembretes filtro, long minutos) {
+        if (minutos < 1 || minutos > MAXIMO_MINUTOS_ADIAR) {
+            throw new IllegalArgumentException("Minutos fora do intervalo 1.." + MAXIMO_MINUTOS_ADIAR);
+        }
+        Map<String, Object> parametros = new HashMap<>();
+        String where = where(filtro, parametros);
+        List<Afetado> afetados = afetados(where, parametros);
+
+        int atualizados = atualizar("l.dataHoraLembrete = l.dataHoraLembrete + (:minutos) minute, " +
+                                    "l.notificado = false, l.dataAtualizacao = :agora",
+            Map.of("minutos", minutos, "agora", LocalDateTime.now()), afetados);
+
+        AposCommit.executar(() -> afetados.forEach(afetado -> {
+            AtividadeLembrete anterior = afetado.lembrete();
+            AtividadeLembrete lembrete = new AtividadeLembrete(anterior.id(), anterior.titulo(),
+                anterior.dataHoraLembrete().plusMinutes(minutos), anterior.notaId(), anterior.lojaId());
+            if (afetado.ativo()) {
+                agendador.agendar(lembrete);
+            }
+            atividadesRecentes.lembreteSalvo(lembrete, afetado.ativo());
+            canal.publicar(CanalLembretes.ATUALIZADO, lembrete);
+        }));
+        return atualizados;
+    }
+
+    // Repetir nos lembretes o loja_id atual das notas informadas (depois que elas mudam de categoria)
+    @Transactional
+    public int sincronizarLoja(Collection<Long> notaIds) {
+        if (notaIds.isEmpty()) {
+            return 0;
+        }
+        Map<String, Object> parametros = new HashMap<>();
+        parametros.put("notaIds", notaIds);
+        String lojaDaNota = "(SELECT n.lojaId FROM Nota n WHERE n.id = l.nota.id)";
+        String where = "WHERE l.nota.id IN :notaIds AND l.lojaId <> " + lojaDaNota;
+        // Sem limite: todos os lembretes das notas movidas precisam acompanhar a nova loja
+        List<Afetado> afetados = afetados(where, parametros, lojaDaNota, Integer.MAX_VALUE);
+
+        int atualizados = atualizar("l.lojaId = " + lojaDaNota, Map.of(), afetados);
+
+        AposCommit.executar(() -> afetados.forEach(afetado -> {
+            boolean pendente = afetado.ativo() && !afetado.notificado();
+            if (pendente) {
+                agendador.agendar(afetado.lembrete());
+            }
+            atividadesRecentes.lembreteSalvo(afetado.lembrete(), pendente);
+            canal.publicar(CanalLembretes.ATUALIZADO, afetado.lembrete());
+        }));
+        return atualizados;
+    }
+
+    private List<Afetado> afetados(String where, Map<String, Object> parametros) {
+        return afetados(where, parametros, "l.lojaId", MAXIMO_AFETADOS);
+    }
+
+    // Linhas que o UPDATE vai alterar, lidas e travadas na mesma transação (somente colunas usadas pelas estruturas
+    // em memória); mais de maximo linhas recusam a operação
+    private List<Afetado> afetados(String where, Map<String, Object> parametros, String colunaLoja, int maximo) {
+        Query consulta = entityManager.createQuery(
+            "SELECT l.id, l.titulo, l.dataHoraLembrete, l.nota.id, " + colunaLoja + ", l.ativo, l.notificado " +
+            "FROM Lembrete l " + where + " ORDER BY l.id");
+        parametros.forEach(consulta::setParameter);
+        consulta.setLockMode(LockModeType.PESSIMISTIC_WRITE);
+        if (maximo < Integer.MAX_VALUE) {
+            consulta.setMaxResults(maximo + 1);
+        }
+
+        List<?> resultados = consulta.getResultList();
+        if (resultados.size() > maximo) {
+            throw new IllegalArgumentException("Mais de " + maximo + " lembretes selecionados; refine o filtro");
+        }
+        List<Afetado> afetados = new ArrayList<>();
+        for (Object resultado : resultados) {
+            Object[] linha = (Object[]) resultado;
+            AtividadeLembrete lembrete = new AtividadeLembrete((Long) linha[0], (String) linha[1],
+                (LocalDateTime) linha[2], (Long) linha[3], (Long) linha[4]);
+            afetados.add(new Afetado(lembrete, Boolean.TRUE.equals(linha[5]), Boolean.TRUE.equals(linha[6])));
+        }
+        return afetados;
+    }
+
+    // Aplicar o SET aos ids lidos, em blocos de TAMANHO_LOTE
+    private int atualizar(String set, Map<String, Object> parametros, List<Afetado> afetados) {
+        int atualizados = 0;
+        for (int inicio = 0; inicio < afetados.size(); inicio += TAMANHO_LOTE) {
+            List<Long> ids = afetados.subList(inicio, Math.min(inicio + TAMANHO_LOTE, afetados.size())).stream()
+                .map(afetado -> afetado.lembrete().id())
+                .toList();
+            Query update = entityManager.createQuery("UPDATE Lembrete l SET " + set + " WHERE l.id IN :selecionados");
+            parametros.forEach(update::setParameter);
+            update.setParameter("selecionados", ids);
+            atualizados += update.executeUpdate();
+        }
+        return atualizados;
+    }
+
+    // Montar o WHERE a partir do filtro; sem nenhum critério a operação é recusada
+    private static String where(FiltroLembretes filtro, Map<String, Object> parametros) {
+        if (filtro == null || filtro.vazio()) {
+            throw new IllegalArgumentException("Informe ids ou ao menos um filtro");
+        }
+
+        List<String> condicoes = new ArrayList<>();
+        if (filtro.ids() != null && !filtro.ids().isEmpty()) {
+            condicoes.add("l.id IN :ids");
+            parametros.put("ids", filtro.ids());
+        }
+        if (filtro.notaId() != null) {
+            condicoes.add("l.nota.id = :notaId");
+            parametros.put("notaId", filtro.notaId());
+        }
+        if (filtro.lojaId() != null) {
+            condicoes.add("l.lojaId = :lojaId");
+            parametros.put("lojaId", filtro.lojaId());
+        }
+        if (filtro.vencidosAntes() != null) {
+            condicoes.add("l.dataHoraLembrete < :vencidosAntes");
+            parametros.put("vencidosAntes", filtro.vencidosAntes());
+        }
+        return "WHERE " + String.join(" AND ", condicoes);
+    }
+}
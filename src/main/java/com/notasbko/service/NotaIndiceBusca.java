@@ -0,0 +1,245 @@
+package com.notasbko.service;
+
+import com.notasbko.dto.FiltroNotas;
+import com.notasbko.entity.Nota.StatusNota;
+import com.notasbko.repository.NotaRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Índice invertido em memória sobre título e anotações das notas; guarda também loja, categoria, status e dataNota
+// para aplicar os demais filtros da consulta combinada sem ir ao banco
+@Component
+public class NotaIndiceBusca {
+    
+    private static final Logger log = LoggerFactory.getLogger(NotaIndiceBusca.class);
+    
+    private static final int PESO_TITULO = 3;
+    private static final int TAMANHO_LOTE_CARGA = 1000;
+    
+    @Autowired
+    private NotaRepository notaRepository;
+    
+    // termo -> (id da nota -> frequência ponderada)
+    private final TreeMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+    private final Map<Long, Documento> documentos = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Notas gravadas enquanto a carga inicial lê o banco: a versão lida por ela pode estar desatualizada
+    private Set<Long> gravadosDuranteCarga;
+    
+    private record Documento(Long lojaId, Long categoriaId, StatusNota status, LocalDateTime dataNota,
+                             Set<String> termos) {
+
+        boolean atende(FiltroNotas filtro) {
+            return (filtro.lojaId() == null || filtro.lojaId().equals(lojaId))
+                && (filtro.categoriaId() == null || filtro.categoriaId().equals(categoriaId))
+                && (filtro.status() == null || filtro.status() == status)
+                && (filtro.de() == null || !dataNota.isBefore(filtro.de()))
+                && (filtro.ate() == null || !dataNota.isAfter(filtro.ate()));
+        }
+    }
+    
+    // Carregar o índice a partir do banco na subida da aplicação
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregar() {
+        lock.writeLock().lock();
+        try {
+            gravadosDuranteCarga = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        long ultimoId = 0L;
+        List<Object[]> lote;
+        do {
+            lote = notaRepository.findDadosIndiceApos(ultimoId, Limit.of(TAMANHO_LOTE_CARGA));
+            for (Object[] linha : lote) {
+                incluir((Long) linha[0], (String) linha[1], (String) linha[2], (StatusNota) linha[3], (Long) linha[4],
+                    (Long) linha[5], (LocalDateTime) linha[6], true);
+                ultimoId = (Long) linha[0];
+            }
+        } while (lote.size() == TAMANHO_LOTE_CARGA);
+        lock.writeLock().lock();
+        try {
+            gravadosDuranteCarga = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Índice de busca de notas carregado com {} documentos", tamanho());
+    }
+    
+    // Incluir ou substituir uma nota no índice
+    public void indexar(Long id, String titulo, String anotacoes, StatusNota status, Long lojaId, Long categoriaId,
+                        LocalDateTime dataNota) {
+        incluir(id, titulo, anotacoes, status, lojaId, categoriaId, dataNota, false);
+    }
+    
+    // A carga não sobrescreve notas que já foram gravadas (ou removidas) depois de lidas por ela
+    private void incluir(Long id, String titulo, String anotacoes, StatusNota status, Long lojaId, Long categoriaId,
+                         LocalDateTime dataNota, boolean daCarga) {
+        Map<String, Integer> frequencias = new HashMap<>();
+        for (String termo : TextoNormalizador.tokens(titulo)) {
+            frequencias.merge(termo, PESO_TITULO, Integer::sum);
+        }
+        for (String termo : TextoNormalizador.tokens(anotacoes)) {
+            frequencias.merge(termo, 1, Integer::sum);
+        }
+        
+        lock.writeLock().lock();
+        try {
+            if (!registrarGravacao(id, daCarga)) {
+                return;
+            }
+            removerSemLock(id);
+            frequencias.forEach((termo, freq) -> postings.computeIfAbsent(termo, t -> new HashMap<>()).put(id, freq));
+            documentos.put(id, new Documento(lojaId, categoriaId, status, dataNota, Set.copyOf(frequencias.keySet())));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    // Retirar uma nota do índice
+    public void remover(Long id) {
+        lock.writeLock().lock();
+        try {
+            registrarGravacao(id, false);
+            removerSemLock(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    // Falso quando a linha lida pela carga já foi substituída por uma gravação mais nova
+    private boolean registrarGravacao(Long id, boolean daCarga) {
+        if (gravadosDuranteCarga == null) {
+            return true;
+        }
+        if (daCarga) {
+            return !gravadosDuranteCarga.contains(id);
+        }
+        gravadosDuranteCarga.add(id);
+        return true;
+    }
+    
+    private void removerSemLock(Long id) {
+        Documento anterior = documentos.remove(id);
+        if (anterior == null) {
+            return;
+        }
+        for (String termo : anterior.termos()) {
+            Map<Long, Integer> lista = postings.get(termo);
+            if (lista != null) {
+                lista.remove(id);
+                if (lista.isEmpty()) {
+                    postings.remove(termo);
+                }
+            }
+        }
+    }
+    
+    // Buscar ids de notas por relevância; todos os termos precisam aparecer e o último vale como prefixo
+    public List<Long> buscar(String texto, Long lojaId, StatusNota status, int limite) {
+        return pontuar(new FiltroNotas(texto, status, lojaId, null, null, null)).entrySet().stream()
+            .sorted(Map.Entry.<Long, Double>comparingByValue().reversed()
+                .thenComparing(Map.Entry.<Long, Double>comparingByKey().reversed()))
+            .limit(limite)
+            .map(Map.Entry::getKey)
+            .toList();
+    }
+    
+    // Todos os ids que casam com o texto e com os demais filtros, sem ordem (consulta combinada)
+    public Set<Long> ids(FiltroNotas filtro) {
+        return pontuar(filtro).keySet();
+    }
+    
+    private Map<Long, Double> pontuar(FiltroNotas filtro) {
+        List<String> palavras = TextoNormalizador.palavras(filtro.texto());
+        if (palavras.isEmpty()) {
+            return Map.of();
+        }
+        
+        lock.readLock().lock();
+        try {
+            List<Map<Long, Integer>> listas = new ArrayList<>();
+            for (int i = 0; i < palavras.size(); i++) {
+                Map<Long, Integer> lista = i == palavras.size() - 1
+                    ? postingsPorPrefixo(palavras.get(i))
+                    : postings.getOrDefault(TextoNormalizador.radical(palavras.get(i)), Map.of());
+                if (lista.isEmpty()) {
+                    return Map.of();
+                }
+                listas.add(lista);
+            }
+            listas.sort(Comparator.comparingInt(Map::size));
+            
+            int totalDocumentos = documentos.size();
+            Map<Long, Double> pontuacao = new HashMap<>();
+            for (Map.Entry<Long, Integer> candidato : listas.get(0).entrySet()) {
+                Long id = candidato.getKey();
+                if (!documentos.get(id).atende(filtro)) {
+                    continue;
+                }
+                double score = 0;
+                boolean todos = true;
+                for (Map<Long, Integer> lista : listas) {
+                    Integer freq = lista.get(id);
+                    if (freq == null) {
+                        todos = false;
+                        break;
+                    }
+                    score += freq * Math.log(1.0 + (double) totalDocumentos / lista.size());
+                }
+                if (todos) {
+                    pontuacao.put(id, score);
+                }
+            }
+            return pontuacao;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    // Une as listas de todos os termos que começam com a palavra (busca enquanto digita). O prefixo não passa pela
+    // redução de plural, que cortaria o "s" de uma palavra incompleta ("pres" viraria "pre"); o radical entra só como
+    // termo exato, para a palavra já completa no plural ("caixas" -> "caixa")
+    private Map<Long, Integer> postingsPorPrefixo(String palavra) {
+        List<Map<Long, Integer>> listas = new ArrayList<>(
+            postings.subMap(palavra, true, palavra + Character.MAX_VALUE, false).values());
+        String radical = TextoNormalizador.radical(palavra);
+        if (!radical.equals(palavra) && postings.containsKey(radical)) {
+            listas.add(postings.get(radical));
+        }
+        if (listas.size() == 1) {
+            return listas.get(0);
+        }
+        Map<Long, Integer> uniao = new HashMap<>();
+        for (Map<Long, Integer> lista : listas) {
+            lista.forEach((id, freq) -> uniao.merge(id, freq, Integer::sum));
+        }
+        return uniao;
+    }
+    
+    public int tamanho() {
+        lock.readLock().lock();
+        try {
+            return documentos.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
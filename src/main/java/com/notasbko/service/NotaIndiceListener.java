@@ -0,0 +1,40 @@
+package com.notasbko.service;
+
+import com.notasbko.entity.Nota;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+// Mantém o índice de busca sincronizado com as gravações de Nota (inclusive remoções em cascata)
+@Component
+public class NotaIndiceListener {
+    
+    // Lazy: o índice depende do NotaRepository, que só existe depois do EntityManagerFactory
+    @Autowired
+    @Lazy
+    private NotaIndiceBusca indice;
+    
+    @PostPersist
+    @PostUpdate
+    public void aposSalvar(Nota nota) {
+        Long id = nota.getId();
+        String titulo = nota.getTitulo();
+        String anotacoes = nota.getAnotacoes();
+        Nota.StatusNota status = nota.getStatus();
+        Long lojaId = nota.getLojaId();
+        Long categoriaId = nota.getCategoria().getId();
+        LocalDateTime dataNota = nota.getDataNota();
+        AposCommit.executar(() -> indice.indexar(id, titulo, anotacoes, status, lojaId, categoriaId, dataNota));
+    }
+    
+    @PostRemove
+    public void aposRemover(Nota nota) {
+        Long id = nota.getId();
+        AposCommit.executar(() -> indice.remover(id));
+    }
+}
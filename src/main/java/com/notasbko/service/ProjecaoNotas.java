@@ -0,0 +1,128 @@
+package com.notasbko.service;
+
+import com.notasbko.dto.NotaParcialDTO;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Listagens de notas com campos selecionados (fields=) ou na visão resumida (view=resumo). Os campos viram a
+// projeção do SELECT, então colunas não pedidas (como o TEXT de anotacoes) não são lidas do banco nem serializadas.
+@Service
+public class ProjecaoNotas {
+
+    public static final String VISAO_RESUMO = "resumo";
+
+    // Campo da API -> caminho JPQL; os que dependem de categoria/loja exigem os JOINs
+    private static final Map<String, String> CAMPOS = new LinkedHashMap<>();
+    private static final Set<String> CAMPOS_COM_JOIN = Set.of("categoriaNome", "lojaNome");
+
+    static {
+        CAMPOS.put("id", "n.id");
+        CAMPOS.put("titulo", "n.titulo");
+        CAMPOS.put("dataNota", "n.dataNota");
+        CAMPOS.put("anotacoes", "n.anotacoes");
+        CAMPOS.put("status", "n.status");
+        CAMPOS.put("dataCriacao", "n.dataCriacao");
+        CAMPOS.put("dataAtualizacao", "n.dataAtualizacao");
+        CAMPOS.put("categoriaId", "n.categoria.id");
+        CAMPOS.put("categoriaNome", "c.nome");
+        CAMPOS.put("lojaId", "n.lojaId");
+        CAMPOS.put("lojaNome", "l.nome");
+    }
+
+    // Visão resumida: tudo o que a listagem mostra, sem o corpo da nota
+    private static final List<String> RESUMO = CAMPOS.keySet().stream()
+        .filter(campo -> !campo.equals("anotacoes"))
+        .toList();
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Campos pedidos, na ordem informada; null quando nenhum dos dois parâmetros veio (listagem completa)
+    public static List<String> campos(String fields, String view) {
+        if (fields == null && view == null) {
+            return null;
+        }
+        if (fields != null && view != null) {
+            throw new IllegalArgumentException("Informe fields ou view, não ambos");
+        }
+        if (view != null) {
+            if (!VISAO_RESUMO.equals(view)) {
+                throw new IllegalArgumentException("Visão desconhecida: " + view);
+            }
+            return RESUMO;
+        }
+
+        Set<String> campos = new LinkedHashSet<>();
+        for (String campo : fields.split(",")) {
+            String nome = campo.trim();
+            if (!CAMPOS.containsKey(nome)) {
+                throw new IllegalArgumentException("Campo desconhecido: " + nome + " (campos: " + CAMPOS.keySet() + ")");
+            }
+            campos.add(nome);
+        }
+        if (campos.isEmpty()) {
+            throw new IllegalArgumentException("Informe ao menos um campo");
+        }
+        return List.copyOf(campos);
+    }
+
+    // Notas mais recentes primeiro, opcionalmente de uma categoria e após o cursor (dataNota, id);
+    // limite nulo devolve todas
+    @Transactional(readOnly = true)
+    public List<NotaParcialDTO> listar(List<String> campos, Long categoriaId, LocalDateTime aposData, Long aposId,
+                                       Integer limite) {
+        StringBuilder jpql = new StringBuilder("SELECT n.id, n.dataNota");
+        for (String campo : campos) {
+            jpql.append(", ").append(CAMPOS.get(campo));
+        }
+        jpql.append(" FROM Nota n");
+        if (campos.stream().anyMatch(CAMPOS_COM_JOIN::contains)) {
+            jpql.append(" JOIN n.categoria c JOIN c.loja l");
+        }
+
+        Map<String, Object> parametros = new HashMap<>();
+        List<String> condicoes = new ArrayList<>();
+        if (categoriaId != null) {
+            condicoes.add("n.categoria.id = :categoriaId");
+            parametros.put("categoriaId", categoriaId);
+        }
+        if (aposId != null) {
+            // A faixa simples antes do OR deixa o H2 usar (categoria_id, data_nota) do idx_notas_categoria_data
+            condicoes.add("n.dataNota <= :dataNota AND (n.dataNota < :dataNota OR (n.dataNota = :dataNota AND n.id < :id))");
+            parametros.put("dataNota", aposData);
+            parametros.put("id", aposId);
+        }
+        if (!condicoes.isEmpty()) {
+            jpql.append(" WHERE ").append(String.join(" AND ", condicoes));
+        }
+        jpql.append(" ORDER BY n.dataNota DESC, n.id DESC");
+
+        TypedQuery<Object[]> consulta = entityManager.createQuery(jpql.toString(), Object[].class);
+        parametros.forEach(consulta::setParameter);
+        if (limite != null) {
+            consulta.setMaxResults(limite);
+        }
+
+        List<NotaParcialDTO> notas = new ArrayList<>();
+        for (Object[] linha : consulta.getResultList()) {
+            Map<String, Object> valores = new LinkedHashMap<>();
+            for (int i = 0; i < campos.size(); i++) {
+                valores.put(campos.get(i), linha[i + 2]);
+            }
+            notas.add(new NotaParcialDTO((Long) linha[0], (LocalDateTime) linha[1], valores));
+        }
+        return notas;
+    }
+}
@@ -0,0 +1,76 @@
+package com.notasbko.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+// Normalização de texto em português: minúsculas, sem acentos, sem stopwords e com plural reduzido
+public final class TextoNormalizador {
+
+    private static final Pattern DIACRITICOS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARADORES = Pattern.compile("[^\\p{Alnum}]+");
+
+    private static final Set<String> STOPWORDS = Set.of(
+        "a", "o", "as", "os", "e", "de", "da", "do", "das", "dos", "em", "no", "na", "nos", "nas",
+        "um", "uma", "uns", "umas", "para", "pra", "por", "pelo", "pela", "com", "sem", "que", "se",
+        "ao", "aos", "ou", "mas", "como", "mais", "ja", "nao", "sua", "seu", "suas", "seus", "ate");
+
+    private TextoNormalizador() {
+    }
+
+    // Remover acentos e converter para minúsculas
+    public static String dobrar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        String decomposto = Normalizer.normalize(texto, Normalizer.Form.NFD);
+        return DIACRITICOS.matcher(decomposto).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    // Quebrar o texto em termos indexáveis
+    public static List<String> tokens(String texto) {
+        List<String> termos = new ArrayList<>();
+        for (String palavra : palavras(texto)) {
+            termos.add(radical(palavra));
+        }
+        return termos;
+    }
+
+    // Palavras normalizadas e sem stopwords, mas ainda sem a redução de plural
+    public static List<String> palavras(String texto) {
+        List<String> palavras = new ArrayList<>();
+        for (String bruto : SEPARADORES.split(dobrar(texto))) {
+            if (bruto.isEmpty() || STOPWORDS.contains(bruto)) {
+                continue;
+            }
+            palavras.add(bruto);
+        }
+        return palavras;
+    }
+
+    // Redução simples de plural (notificações -> notificacao, lojas -> loja)
+    static String radical(String termo) {
+        if (termo.length() <= 3) {
+            return termo;
+        }
+        if (termo.endsWith("oes") || termo.endsWith("aes")) {
+            return termo.substring(0, termo.length() - 3) + "ao";
+        }
+        if (termo.endsWith("ais")) {
+            return termo.substring(0, termo.length() - 3) + "al";
+        }
+        if (termo.endsWith("eis")) {
+            return termo.substring(0, termo.length() - 3) + "el";
+        }
+        if (termo.endsWith("ns")) {
+            return termo.substring(0, termo.length() - 2) + "m";
+        }
+        if (termo.endsWith("s") && !termo.endsWith("ss")) {
+            return termo.substring(0, termo.length() - 1);
+        }
+        return termo;
+    }
+}
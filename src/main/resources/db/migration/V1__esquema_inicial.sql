@@ -0,0 +1,69 @@
+-- Esquema inicial (equivalente ao que o Hibernate gerava com ddl-auto=create-drop)
+
+CREATE SEQUENCE notas_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE lembretes_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE lojas (
+    id               BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    nome             VARCHAR(100) NOT NULL,
+    descricao        VARCHAR(500),
+    endereco         VARCHAR(200),
+    telefone         VARCHAR(20),
+    data_criacao     TIMESTAMP(6) NOT NULL,
+    data_atualizacao TIMESTAMP(6),
+    CONSTRAINT pk_lojas PRIMARY KEY (id)
+);
+
+CREATE TABLE categorias (
+    id               BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    nome             VARCHAR(100) NOT NULL,
+    descricao        VARCHAR(300),
+    loja_id          BIGINT NOT NULL,
+    data_criacao     TIMESTAMP(6) NOT NULL,
+    data_atualizacao TIMESTAMP(6),
+    CONSTRAINT pk_categorias PRIMARY KEY (id),
+    CONSTRAINT fk_categorias_loja FOREIGN KEY (loja_id) REFERENCES lojas (id)
+);
+
+CREATE TABLE notas (
+    id               BIGINT NOT NULL,
+    titulo           VARCHAR(200) NOT NULL,
+    data_nota        TIMESTAMP(6) NOT NULL,
+    anotacoes        TEXT,
+    status           VARCHAR(255) NOT NULL CHECK (status IN ('PENDENTE', 'EM_ANDAMENTO', 'CONCLUIDO')),
+    categoria_id     BIGINT NOT NULL,
+    data_criacao     TIMESTAMP(6) NOT NULL,
+    data_atualizacao TIMESTAMP(6),
+    CONSTRAINT pk_notas PRIMARY KEY (id),
+    CONSTRAINT fk_notas_categoria FOREIGN KEY (categoria_id) REFERENCES categorias (id)
+);
+
+CREATE TABLE lembretes (
+    id                 BIGINT NOT NULL,
+    titulo             VARCHAR(200),
+    descricao          VARCHAR(500),
+    data_hora_lembrete TIMESTAMP(6) NOT NULL,
+    ativo              BOOLEAN NOT NULL,
+    notificado         BOOLEAN NOT NULL,
+    nota_id            BIGINT NOT NULL,
+    data_criacao       TIMESTAMP(6) NOT NULL,
+    data_atualizacao   TIMESTAMP(6),
+    CONSTRAINT pk_lembretes PRIMARY KEY (id),
+    CONSTRAINT fk_lembretes_nota FOREIGN KEY (nota_id) REFERENCES notas (id)
+);
+
+CREATE TABLE contatos (
+    id               BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    nome             VARCHAR(255) NOT NULL,
+    matricula        VARCHAR(8) NOT NULL,
+    cargo            VARCHAR(255) NOT NULL CHECK (cargo IN ('GERENTE', 'PROPRIETARIO', 'VENDEDOR')),
+    telefone         VARCHAR(255),
+    email            VARCHAR(255),
+    observacoes      TEXT,
+    loja_id          BIGINT NOT NULL,
+    data_criacao     TIMESTAMP(6),
+    data_atualizacao TIMESTAMP(6),
+    CONSTRAINT pk_contatos PRIMARY KEY (id),
+    CONSTRAINT uk_contatos_matricula UNIQUE (matricula),
+    CONSTRAINT fk_contatos_loja FOREIGN KEY (loja_id) REFERENCES lojas (id)
+);
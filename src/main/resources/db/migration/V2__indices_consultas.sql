@@ -0,0 +1,29 @@
+-- Índices para as consultas mais frequentes dos repositórios
+
+-- Lembretes pendentes por data: findLembretesProximos, findLembretesVencidos, countLembretesProximos,
+-- findAtividadesProximas e a carga do agendador
+CREATE INDEX idx_lembretes_pendentes ON lembretes (ativo, notificado, data_hora_lembrete);
+
+-- Listagem paginada por data (findAllByOrderByDataHoraLembreteAsc, findPaginaApos)
+CREATE INDEX idx_lembretes_data_hora ON lembretes (data_hora_lembrete, id);
+
+-- Lembretes de uma nota (findByNotaId, remoção em cascata)
+CREATE INDEX idx_lembretes_nota ON lembretes (nota_id, data_hora_lembrete);
+
+-- Notas de uma categoria em ordem de data (findByCategoriaIdOrderByDataNotaDesc e paginação por categoria)
+CREATE INDEX idx_notas_categoria_data ON notas (categoria_id, data_nota DESC, id DESC);
+
+-- Notas por status, opcionalmente restritas às categorias de uma loja (findByStatus, findByStatusAndLojaId, countByStatus)
+CREATE INDEX idx_notas_status_categoria ON notas (status, categoria_id);
+
+-- Listagem geral paginada por data (findAllByOrderByDataNotaDesc, findPaginaApos)
+CREATE INDEX idx_notas_data ON notas (data_nota DESC, id DESC);
+
+-- Categorias de uma loja (findByLojaId, joins das consultas por loja)
+CREATE INDEX idx_categorias_loja ON categorias (loja_id, id);
+
+-- Contatos de uma loja em ordem alfabética (findByLojaIdOrderByNomeAsc e paginação por nome)
+CREATE INDEX idx_contatos_loja_nome ON contatos (loja_id, nome, id);
+
+-- Contatos por cargo (findByCargo, findByLojaIdAndCargo)
+CREATE INDEX idx_contatos_cargo ON contatos (cargo, loja_id);
@@ -0,0 +1,21 @@
+-- loja_id repetido em notas e lembretes para que as consultas por loja não precisem passar por categorias/notas
+
+ALTER TABLE notas ADD COLUMN loja_id BIGINT;
+ALTER TABLE lembretes ADD COLUMN loja_id BIGINT;
+
+-- Preenchimento das linhas existentes
+UPDATE notas n SET loja_id = (SELECT c.loja_id FROM categorias c WHERE c.id = n.categoria_id);
+UPDATE lembretes l SET loja_id = (SELECT n.loja_id FROM notas n WHERE n.id = l.nota_id);
+
+ALTER TABLE notas ALTER COLUMN loja_id SET NOT NULL;
+ALTER TABLE lembretes ALTER COLUMN loja_id SET NOT NULL;
+
+-- Notas de uma loja por status (findByStatusAndLojaId, estatísticas) e em ordem de data (findByLojaId e paginação)
+CREATE INDEX idx_notas_loja_status ON notas (loja_id, status);
+CREATE INDEX idx_notas_loja_data ON notas (loja_id, data_nota DESC, id DESC);
+
+-- Lembretes pendentes de uma loja por data (findAtividadesProximasPorLoja, estatísticas) e listagem por loja
+CREATE INDEX idx_lembretes_loja_pendentes ON lembretes (loja_id, ativo, notificado, data_hora_lembrete);
+
+ALTER TABLE notas ADD CONSTRAINT fk_notas_loja FOREIGN KEY (loja_id) REFERENCES lojas (id);
+ALTER TABLE lembretes ADD CONSTRAINT fk_lembretes_loja FOREIGN KEY (loja_id) REFERENCES lojas (id);
@@ -1,5 +1,7 @@
 // Configuração da API
 const API_BASE_URL = 'http://localhost:8080/api';
+// Itens por página nas listagens paginadas por cursor
+const PAGE_SIZE = 50;
 
 // Estado global da aplicação
 const AppState = {
@@ -7,6 +9,7 @@ const AppState = {
     stores: [],
     categories: [],
     notes: [],
+    noteOptions: [],
     reminders: [],
     currentStore: null,
     currentCategory: null,
@@ -203,6 +206,24 @@ const Utils = {
         return statusMap[status] || status;
     },
 
+    // Data/hora local no formato ISO sem fuso (2025-01-31T18:00:00), como os filtros de período da API esperam
+    formatIsoLocal(date) {
+        const pad = n => String(n).padStart(2, '0');
+        return `${date.getFullYear()}-${pad(date.getMonth() + 1)}-${pad(date.getDate())}` +
+            `T${pad(date.getHours())}:${pad(date.getMinutes())}:${pad(date.getSeconds())}`;
+    },
+
+    // Query string só com os filtros preenchidos
+    queryString(filters) {
+        const params = new URLSearchParams();
+        Object.entries(filters).forEach(([name, value]) => {
+            if (value !== '' && value !== null && value !== undefined) {
+                params.append(name, value);
+            }
+        });
+        return params.toString();
+    },
+
     // Debounce para pesquisa
     debounce(func, wait) {
         let timeout;
@@ -300,6 +321,34 @@ const API = {
         }
     },
 
+    // Uma página da listagem: itens e o cursor da próxima (null na última), lido do header X-Next-Cursor
+    async requestPage(endpoint, cursor) {
+        const separator = endpoint.includes('?') ? '&' : '?';
+        let url = `${API_BASE_URL}${endpoint}${separator}limit=${PAGE_SIZE}`;
+        if (cursor) {
+            url += `&cursor=${encodeURIComponent(cursor)}`;
+        }
+        try {
+            const response = await fetch(url, {
+                headers: {
+                    'Content-Type': 'application/json'
+                }
+            });
+            
+            if (!response.ok) {
+                throw new Error(`HTTP error! status: ${response.status}`);
+            }
+            
+            return {
+                items: await response.json(),
+                nextCursor: response.headers.get('X-Next-Cursor')
+            };
+        } catch (error) {
+            console.error('API Error:', error);
+            throw error;
+        }
+    },
+
     // Stores
     async getStores() {
         return this.request('/lojas');
@@ -359,8 +408,14 @@ const API = {
     },
 
     // Notes
-    async getNotes() {
-        return this.request('/notas');
+    // Página da consulta combinada de notas (filtros aplicados no servidor), na visão resumida, sem o corpo
+    async getNotesPage(filters, cursor) {
+        return this.requestPage(`/notas/query?${Utils.queryString({ ...filters, view: 'resumo' })}`, cursor);
+    },
+
+    // Todas as notas, só com os campos usados nos selects (sem o corpo)
+    async getNoteOptions() {
+        return this.request('/notas?fields=id,titulo,categoriaId');
     },
 
     async getNotesByCategory(categoryId) {
@@ -400,8 +455,10 @@ const API = {
     },
 
     // Reminders
-    async getReminders() {
-        return this.request('/lembretes');
+    // Página da consulta combinada de lembretes (filtros aplicados no servidor)
+    async getRemindersPage(filters, cursor) {
+        const query = Utils.queryString(filters);
+        return this.requestPage(query ? `/lembretes/query?${query}` : '/lembretes/query', cursor);
     },
 
     async getRemindersByNote(noteId) {
@@ -1046,6 +1103,9 @@ const App = {
             // Configurar navegação do sidebar
             this.setupSidebarNavigation();
             
+            // Receber eventos de lembretes do servidor
+            this.setupReminderStream();
+            
             // Carregar dashboard inicial
             await Navigation.loadSectionData('dashboard');
             
@@ -1056,6 +1116,32 @@ const App = {
         }
     },
 
+    setupReminderStream() {
+        // Lembretes vencidos chegam por SSE, sem consultas periódicas à API
+        if (!window.EventSource) {
+            return;
+        }
+        
+        // Os vencidos do mesmo tick chegam juntos: são agrupados em um aviso e uma recarga só da lista
+        const vencidos = [];
+        let agrupando = null;
+        const stream = new EventSource(`${API_BASE_URL}/lembretes/stream`);
+        stream.addEventListener('vencido', event => {
+            vencidos.push(JSON.parse(event.data));
+            if (agrupando) return;
+            agrupando = setTimeout(() => {
+                const lote = vencidos.splice(0);
+                agrupando = null;
+                Toast.show(lote.length === 1
+                    ? `Lembrete: ${lote[0].titulo || 'sem título'}`
+                    : `${lote.length} lembretes vencidos`, 'warning');
+                if (['lembretes', 'reminders'].includes(AppState.currentSection)) {
+                    ReminderManager.refresh();
+                }
+            }, 500);
+        });
+    },
+
     setupSidebarNavigation() {
         // Configurar navegação do sidebar
         document.querySelectorAll('.sidebar .nav-link').forEach(link => {
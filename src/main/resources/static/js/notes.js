@@ -6,6 +6,8 @@ const NoteManager = {
         category: '',
         store: ''
     },
+    // Cursor da próxima página da listagem (null quando já está toda carregada)
+    nextCursor: null,
 
     async load() {
         try {
@@ -35,35 +37,52 @@ const NoteManager = {
     },
 
     async loadNotes() {
-        AppState.notes = await API.getNotes();
+        const page = await API.getNotesPage(this.queryFilters());
+        AppState.notes = page.items;
+        this.nextCursor = page.nextCursor;
+    },
+
+    async loadMore() {
+        if (!this.nextCursor) return;
+        try {
+            Loading.show();
+            const page = await API.getNotesPage(this.queryFilters(), this.nextCursor);
+            AppState.notes = AppState.notes.concat(page.items);
+            this.nextCursor = page.nextCursor;
+            this.render();
+        } catch (error) {
+            console.error('Error loading more notes:', error);
+            Toast.show('Erro ao carregar mais notas', 'error');
+        } finally {
+            Loading.hide();
+        }
     },
 
     render() {
         const container = document.getElementById('notes-list');
         if (!container) return;
 
-        let filteredNotes = this.applyFilters(AppState.notes);
+        const loadMore = document.getElementById('notes-load-more');
+        if (loadMore) loadMore.style.display = this.nextCursor ? '' : 'none';
 
-        if (filteredNotes.length === 0) {
+        if (AppState.notes.length === 0) {
             container.innerHTML = '<p class="text-center text-muted">Nenhuma nota encontrada</p>';
             return;
         }
 
-        container.innerHTML = filteredNotes.map(note => this.renderNoteCard(note)).join('');
+        container.innerHTML = AppState.notes.map(note => this.renderNoteCard(note)).join('');
     },
 
+    // A listagem vem na visão resumida (sem anotacoes); o corpo da nota só é buscado ao abrir a edição
     renderNoteCard(note) {
-        const category = AppState.categories.find(c => c.id === note.categoriaId);
-        const store = category ? AppState.stores.find(s => s.id === category.lojaId) : null;
-        
         return `
             <div class="card note-card" data-note-id="${note.id}">
                 <div class="card-header">
                     <div>
                         <h3 class="card-title">${note.titulo}</h3>
                         <p class="card-subtitle">
-                            ${store ? store.nome : 'Loja não encontrada'} > 
-                            ${category ? category.nome : 'Categoria não encontrada'}
+                            ${note.lojaNome || 'Loja não encontrada'} > 
+                            ${note.categoriaNome || 'Categoria não encontrada'}
                         </p>
                     </div>
                     <div class="card-actions">
@@ -81,9 +100,6 @@ const NoteManager = {
                         </button>
                     </div>
                 </div>
-                <div class="card-content">
-                    <p>${note.anotacoes || 'Sem anotações'}</p>
-                </div>
                 <div class="card-footer">
                     <span class="text-small text-muted">
                         <i class="fas fa-calendar"></i> ${Utils.formatDate(note.dataNota)}
@@ -127,7 +143,7 @@ const NoteManager = {
         if (searchInput) {
             searchInput.addEventListener('input', Utils.debounce((e) => {
                 this.currentFilters.search = e.target.value;
-                this.render();
+                this.applyFilters();
             }, 300));
         }
 
@@ -136,7 +152,7 @@ const NoteManager = {
         if (statusFilter) {
             statusFilter.addEventListener('change', (e) => {
                 this.currentFilters.status = e.target.value;
-                this.render();
+                this.applyFilters();
             });
         }
 
@@ -155,7 +171,7 @@ const NoteManager = {
                 }
                 
                 this.currentFilters.category = ''; // Reset category filter
-                this.render();
+                this.applyFilters();
             });
         }
 
@@ -164,7 +180,7 @@ const NoteManager = {
         if (categoryFilter) {
             categoryFilter.addEventListener('change', (e) => {
                 this.currentFilters.category = e.target.value;
-                this.render();
+                this.applyFilters();
             });
         }
     },
@@ -181,38 +197,29 @@ const NoteManager = {
         `;
     },
 
-    applyFilters(notes) {
-        return notes.filter(note => {
-            // Search filter
-            if (this.currentFilters.search) {
-                const searchTerm = this.currentFilters.search.toLowerCase();
-                const matchesTitle = note.titulo.toLowerCase().includes(searchTerm);
-                const matchesContent = note.anotacoes && note.anotacoes.toLowerCase().includes(searchTerm);
-                if (!matchesTitle && !matchesContent) {
-                    return false;
-                }
-            }
-
-            // Status filter
-            if (this.currentFilters.status && note.status !== this.currentFilters.status) {
-                return false;
-            }
-
-            // Category filter
-            if (this.currentFilters.category && note.categoriaId != this.currentFilters.category) {
-                return false;
-            }
-
-            // Store filter
-            if (this.currentFilters.store) {
-                const category = AppState.categories.find(c => c.id === note.categoriaId);
-                if (!category || category.lojaId != this.currentFilters.store) {
-                    return false;
-                }
-            }
+    // Filtros da consulta combinada (/notas/query); o texto é buscado por palavras no título e nas anotações
+    queryFilters() {
+        return {
+            texto: this.currentFilters.search.trim(),
+            status: this.currentFilters.status,
+            lojaId: this.currentFilters.store,
+            categoriaId: this.currentFilters.category
+        };
+    },
 
-            return true;
-        });
+    // Recarrega a primeira página com os filtros atuais, aplicados no servidor
+    async applyFilters() {
+        try {
+            await this.loadNotes();
+        } catch (error) {
+            console.error('Error filtering notes:', error);
+            AppState.notes = [];
+            this.nextCursor = null;
+            Toast.show(this.currentFilters.search
+                ? 'Busca muito ampla: refine o texto ou filtre por loja/status'
+                : 'Erro ao filtrar notas', 'error');
+        }
+        this.render();
     },
 
     showCreateModal() {
@@ -411,7 +418,7 @@ const NoteManager = {
         if (categoryFilter) categoryFilter.value = '';
         
         this.renderCategoryFilter();
-        this.render();
+        this.applyFilters();
     }
 };
 
@@ -5,6 +5,10 @@ const ReminderManager = {
         status: 'all', // all, active, inactive, upcoming, overdue
         note: ''
     },
+    // Cursor da próxima página da listagem (null quando já está toda carregada)
+    nextCursor: null,
+    // Os listeners dos filtros são registrados uma vez; as recargas da seção só repõem as opções
+    filtersReady: false,
 
     async load() {
         try {
@@ -22,35 +26,59 @@ const ReminderManager = {
         }
     },
 
+    // Recarregar só a lista (eventos do servidor), sem notas nem filtros
+    async refresh() {
+        try {
+            await this.loadReminders();
+            this.render();
+        } catch (error) {
+            console.error('Error refreshing reminders:', error);
+        }
+    },
+
     async loadReminders() {
-        AppState.reminders = await API.getReminders();
+        const page = await API.getRemindersPage(this.queryFilters());
+        AppState.reminders = page.items;
+        this.nextCursor = page.nextCursor;
     },
 
-    async loadNotes() {
-        if (AppState.notes.length === 0) {
-            AppState.notes = await API.getNotes();
+    async loadMore() {
+        if (!this.nextCursor) return;
+        try {
+            Loading.show();
+            const page = await API.getRemindersPage(this.queryFilters(), this.nextCursor);
+            AppState.reminders = AppState.reminders.concat(page.items);
+            this.nextCursor = page.nextCursor;
+            this.render();
+        } catch (error) {
+            console.error('Error loading more reminders:', error);
+            Toast.show('Erro ao carregar mais lembretes', 'error');
+        } finally {
+            Loading.hide();
         }
     },
 
+    async loadNotes() {
+        AppState.noteOptions = await API.getNoteOptions();
+    },
+
     render() {
         const container = document.getElementById('reminders-list');
         if (!container) return;
 
-        let filteredReminders = this.applyFilters(AppState.reminders);
+        const loadMore = document.getElementById('reminders-load-more');
+        if (loadMore) loadMore.style.display = this.nextCursor ? '' : 'none';
 
-        if (filteredReminders.length === 0) {
+        if (AppState.reminders.length === 0) {
             container.innerHTML = '<p class="text-center text-muted">Nenhum lembrete encontrado</p>';
             return;
         }
 
-        // Ordenar por data/hora do lembrete
-        filteredReminders.sort((a, b) => new Date(a.dataHoraLembrete) - new Date(b.dataHoraLembrete));
-
-        container.innerHTML = filteredReminders.map(reminder => this.renderReminderCard(reminder)).join('');
+        // A consulta já vem ordenada por data/hora do lembrete
+        container.innerHTML = AppState.reminders.map(reminder => this.renderReminderCard(reminder)).join('');
     },
 
     renderReminderCard(reminder) {
-        const note = AppState.notes.find(n => n.id === reminder.notaId);
         const isUpcoming = this.isUpcoming(reminder.dataHoraLembrete);
         const isOverdue = this.isOverdue(reminder.dataHoraLembrete);
         
@@ -77,7 +105,7 @@ const ReminderManager = {
                     <div>
                         <h3 class="card-title">${reminder.titulo}</h3>
                         <p class="card-subtitle">
-                            Nota: ${note ? note.titulo : 'Nota não encontrada'}
+                            Nota: ${reminder.notaTitulo || 'Nota não encontrada'}
                         </p>
                     </div>
                     <div class="card-actions">
@@ -115,12 +143,16 @@ const ReminderManager = {
     },
 
     setupFilters() {
+        this.populateNoteFilter();
+        if (this.filtersReady) return;
+        this.filtersReady = true;
+
         // Search input
         const searchInput = document.getElementById('reminders-search');
         if (searchInput) {
             searchInput.addEventListener('input', Utils.debounce((e) => {
                 this.currentFilters.search = e.target.value;
-                this.render();
+                this.applyFilters();
             }, 300));
         }
 
@@ -129,17 +161,16 @@ const ReminderManager = {
         if (statusFilter) {
             statusFilter.addEventListener('change', (e) => {
                 this.currentFilters.status = e.target.value;
-                this.render();
+                this.applyFilters();
             });
         }
 
         // Note filter
         const noteFilter = document.getElementById('note-filter');
         if (noteFilter) {
-            this.populateNoteFilter();
             noteFilter.addEventListener('change', (e) => {
                 this.currentFilters.note = e.target.value;
-                this.render();
+                this.applyFilters();
             });
         }
     },
@@ -150,49 +181,52 @@ const ReminderManager = {
 
         select.innerHTML = `
             <option value="">Todas as notas</option>
-            ${AppState.notes.map(note => `
+            ${AppState.noteOptions.map(note => `
                 <option value="${note.id}">${note.titulo}</option>
             `).join('')}
         `;
+        select.value = this.currentFilters.note;
     },
 
-    applyFilters(reminders) {
-        return reminders.filter(reminder => {
-            // Search filter
-            if (this.currentFilters.search) {
-                const searchTerm = this.currentFilters.search.toLowerCase();
-                const matchesTitle = reminder.titulo.toLowerCase().includes(searchTerm);
-                const matchesDescription = reminder.descricao && reminder.descricao.toLowerCase().includes(searchTerm);
-                if (!matchesTitle && !matchesDescription) {
-                    return false;
-                }
-            }
-
-            // Status filter
-            if (this.currentFilters.status !== 'all') {
-                switch (this.currentFilters.status) {
-                    case 'active':
-                        if (!reminder.ativo) return false;
-                        break;
-                    case 'inactive':
-                        if (reminder.ativo) return false;
-                        break;
-                    case 'upcoming':
-                        if (!reminder.ativo || !this.isUpcoming(reminder.dataHoraLembrete)) return false;
-                        break;
-                    case 'overdue':
-                        if (!reminder.ativo || !this.isOverdue(reminder.dataHoraLembrete)) return false;
-                        break;
-                }
-            }
-
-            // Note filter
-            if (this.currentFilters.note && reminder.notaId != this.currentFilters.note) {
-                return false;
-            }
+    // Filtros da consulta combinada (/lembretes/query): "próximos" são as próximas 24 horas e "atrasados" tudo até
+    // agora, ambos só entre os ativos
+    queryFilters() {
+        const now = new Date();
+        const filters = {
+            texto: this.currentFilters.search.trim(),
+            notaId: this.currentFilters.note
+        };
+        switch (this.currentFilters.status) {
+            case 'active':
+                filters.ativo = true;
+                break;
+            case 'inactive':
+                filters.ativo = false;
+                break;
+            case 'upcoming':
+                filters.ativo = true;
+                filters.de = Utils.formatIsoLocal(now);
+                filters.ate = Utils.formatIsoLocal(new Date(now.getTime() + 24 * 60 * 60 * 1000));
+                break;
+            case 'overdue':
+                filters.ativo = true;
+                filters.ate = Utils.formatIsoLocal(now);
+                break;
+        }
+        return filters;
+    },
 
-            return true;
-        });
+    // Recarrega a primeira página com os filtros atuais, aplicados no servidor
+    async applyFilters() {
+        try {
+            await this.loadReminders();
+        } catch (error) {
+            console.error('Error filtering reminders:', error);
+            AppState.reminders = [];
+            this.nextCursor = null;
+            Toast.show('Erro ao filtrar lembretes', 'error');
+        }
+        this.render();
     },
 
     isUpcoming(dateTime) {
@@ -333,7 +367,7 @@ const ReminderManager = {
 
         select.innerHTML = `
             <option value="">Selecione uma nota</option>
-            ${AppState.notes.map(note => {
+            ${AppState.noteOptions.map(note => {
                 const category = AppState.categories.find(c => c.id === note.categoriaId);
                 const store = category ? AppState.stores.find(s => s.id === category.lojaId) : null;
                 const context = store && category ? `${store.nome} > ${category.nome}` : 'Contexto não encontrado';
@@ -364,12 +398,11 @@ const ReminderManager = {
         container.innerHTML = `
             <div class="upcoming-reminders-list">
                 ${reminders.map(reminder => {
-                    const note = AppState.notes.find(n => n.id === reminder.notaId);
                     return `
                         <div class="upcoming-reminder-item">
                             <div class="reminder-info">
                                 <h4>${reminder.titulo}</h4>
-                                <p class="text-small text-muted">${note ? note.titulo : 'Nota não encontrada'}</p>
+                                <p class="text-small text-muted">${reminder.notaTitulo || 'Nota não encontrada'}</p>
                             </div>
                             <div class="reminder-time">
                                 <span class="text-small">${Utils.formatDateTime(reminder.dataHoraLembrete)}</span>
@@ -398,7 +431,7 @@ const ReminderManager = {
         const noteFilter = document.getElementById('note-filter');
         if (noteFilter) noteFilter.value = '';
         
-        this.render();
+        this.applyFilters();
     },
 
     // Método para criar lembrete diretamente de uma nota
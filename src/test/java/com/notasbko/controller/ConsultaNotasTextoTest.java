@@ -0,0 +1,59 @@
+package com.notasbko.controller;
+
+import com.notasbko.dto.FiltroNotas;
+import com.notasbko.service.ConsultaFiltrada;
+import com.notasbko.service.NotaIndiceBusca;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Limite de ids do texto na consulta combinada de notas, com massa suficiente para uma palavra comum do vocabulário
+// do GeradorDados casar com mais de MAXIMO_NOTAS_TEXTO notas
+@SpringBootTest(properties = {
+    "spring.profiles.active=dados-sinteticos",
+    "spring.datasource.url=jdbc:h2:mem:consulta-notas-texto;DB_CLOSE_DELAY=-1",
+    "notasbko.gerador.lojas=20",
+    "notasbko.gerador.categorias-por-loja=3",
+    "notasbko.gerador.notas=4000",
+    "notasbko.gerador.lembretes=0",
+    "notasbko.gerador.contatos-por-loja=1"
+})
+@AutoConfigureMockMvc
+class ConsultaNotasTextoTest {
+
+    private static final String TEXTO = "cliente";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private NotaIndiceBusca indiceBusca;
+
+    @Test
+    void textoSemOutroFiltroAcimaDoLimiteRetorna400() throws Exception {
+        assertThat(indiceBusca.ids(new FiltroNotas(TEXTO, null, null, null, null, null)))
+            .hasSizeGreaterThan(ConsultaFiltrada.MAXIMO_NOTAS_TEXTO);
+
+        mockMvc.perform(get("/api/notas/query").param("texto", TEXTO))
+            .andExpect(status().isBadRequest());
+    }
+
+    // A categoria é aplicada no índice antes do limite: o texto sozinho passa de 1000 notas, o resultado filtrado não
+    @Test
+    void textoComCategoriaAcimaDoLimiteNoTextoRetorna200() throws Exception {
+        assertThat(indiceBusca.ids(new FiltroNotas(TEXTO, null, null, 1L, null, null)))
+            .isNotEmpty()
+            .hasSizeLessThanOrEqualTo(ConsultaFiltrada.MAXIMO_NOTAS_TEXTO);
+
+        mockMvc.perform(get("/api/notas/query").param("texto", TEXTO).param("categoriaId", "1"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].categoriaId").value(1));
+    }
+}
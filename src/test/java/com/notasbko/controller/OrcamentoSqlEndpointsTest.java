@@ -0,0 +1,97 @@
+package com.notasbko.controller;
+
+import com.notasbko.service.ContadorSqlFiltro;
+import com.notasbko.service.OrcamentoSql;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+// Orçamento de comandos SQL por endpoint, sobre uma massa pequena do GeradorDados (20 lojas, o bastante para que
+// um laço por loja, ou por nota, passe do limite de repetições e apareça como N+1). O banco é próprio da classe,
+// para não compartilhar a massa com os demais testes
+@SpringBootTest(properties = {
+    "spring.profiles.active=dados-sinteticos",
+    "spring.datasource.url=jdbc:h2:mem:orcamento-sql;DB_CLOSE_DELAY=-1",
+    "notasbko.gerador.lojas=20",
+    "notasbko.gerador.categorias-por-loja=3",
+    "notasbko.gerador.notas=600",
+    "notasbko.gerador.lembretes=200",
+    "notasbko.gerador.contatos-por-loja=3"
+})
+@AutoConfigureMockMvc
+class OrcamentoSqlEndpointsTest {
+
+    // Mesmo padrão de notasbko.sql.limite-repeticoes
+    private static final int LIMITE_REPETICOES = 5;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @ParameterizedTest(name = "{0} em até {1} comandos")
+    @CsvSource({
+        "/api/lojas, 2",
+        "/api/lojas/1, 1",
+        "/api/lojas/1/categorias, 2",
+        "/api/categorias/loja/1, 1",
+        "/api/categorias/1/notas, 2",
+        "/api/contatos/loja/1, 1",
+        "/api/contatos/autocomplete?texto=sil&lojaId=1, 0",
+        "/api/notas?limit=50, 1",
+        "/api/notas/loja/1, 2",
+        "/api/notas/categoria/1, 1",
+        "/api/notas/1, 1",
+        "/api/notas/1/lembretes, 2",
+        "/api/notas/query?lojaId=1&status=PENDENTE, 1",
+        "/api/notas/query?texto=cliente&view=resumo, 1",
+        "/api/lembretes/query?ativo=true&texto=lembrete, 1",
+        "/api/lembretes?limit=50, 1",
+        "/api/lembretes/ativos?limit=50, 1",
+        "/api/lembretes/proximos, 1",
+        "/api/lembretes/vencidos, 1",
+        "/api/lembretes/query?ativo=true, 1",
+        "/api/dashboard/resumo, 1",
+        "/api/dashboard/estatisticas/notas, 0",
+        "/api/dashboard/estatisticas/notas/loja/1, 0",
+        "/api/dashboard/estatisticas/lojas?ids=1&ids=2&ids=3, 1",
+        "/api/dashboard/atividades-recentes, 0",
+        "/api/dashboard/graficos, 1"
+    })
+    void endpointDentroDoOrcamento(String url, int maximo) throws Exception {
+        MvcResult resultado = OrcamentoSql.comOrcamento(maximo, LIMITE_REPETICOES,
+            () -> mockMvc.perform(get(url)).andReturn());
+
+        assertThat(resultado.getResponse().getStatus()).isEqualTo(200);
+        assertThat(resultado.getResponse().getHeader(ContadorSqlFiltro.HEADER_REPETIDOS)).isNull();
+    }
+
+    // A consulta agrupada dos gráficos roda no pool do dashboard e ainda assim conta para a requisição; a versão
+    // antiga, com uma contagem por loja, estouraria o orçamento e o limite de repetições
+    @Test
+    void graficosContamAConsultaDoPool() throws Exception {
+        MvcResult resultado = OrcamentoSql.comOrcamento(1, LIMITE_REPETICOES,
+            () -> mockMvc.perform(get("/api/dashboard/graficos?top=20")).andReturn());
+
+        assertThat(resultado.getResponse().getHeader(ContadorSqlFiltro.HEADER_TOTAL)).isEqualTo("1");
+    }
+
+    // Com o ETag atual, a listagem responde 304 só com a consulta da versão, sem Last-Modified
+    @Test
+    void listagemNaoModificadaCustaUmComando() throws Exception {
+        String etag = mockMvc.perform(get("/api/lojas")).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        MvcResult resultado = OrcamentoSql.comOrcamento(1,
+            () -> mockMvc.perform(get("/api/lojas").header(HttpHeaders.IF_NONE_MATCH, etag)).andReturn());
+
+        assertThat(resultado.getResponse().getStatus()).isEqualTo(304);
+        assertThat(resultado.getResponse().getHeader(HttpHeaders.LAST_MODIFIED)).isNull();
+    }
+}
@@ -0,0 +1,133 @@
+package com.notasbko.repository;
+
+import com.notasbko.entity.Nota.StatusNota;
+import com.notasbko.service.ContadorSql;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Plano do H2 (EXPLAIN) para o SQL que o Hibernate gera nas consultas mais frequentes. Nas consultas que só filtram
+// pela FK, o H2 prefere o índice que ele mesmo cria para a FK (fk_*_index_*) ao índice composto da V2 que começa pela
+// mesma coluna, e ordena depois; o composto só entra quando a consulta também limita a segunda coluna, como nas
+// páginas seguintes da paginação por cursor
+@SpringBootTest
+class IndicesConsultasTest {
+
+    private static final LocalDateTime AGORA = LocalDateTime.of(2026, 1, 1, 12, 0);
+
+    @Autowired
+    private NotaRepository notaRepository;
+
+    @Autowired
+    private LembreteRepository lembreteRepository;
+
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+
+    @Autowired
+    private ContatoRepository contatoRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void lembretesProximosUsamIndicePendentes() {
+        assertThat(plano(() -> lembreteRepository.findLembretesProximos(AGORA, AGORA.plusHours(24))))
+            .containsIgnoringCase("idx_lembretes_pendentes");
+    }
+
+    @Test
+    void lembretesVencidosUsamIndicePendentes() {
+        assertThat(plano(() -> lembreteRepository.findLembretesVencidos(AGORA)))
+            .containsIgnoringCase("idx_lembretes_pendentes");
+    }
+
+    @Test
+    void notasPorStatusELojaUsamIndiceLojaStatus() {
+        assertThat(plano(() -> notaRepository.findByStatusAndLojaId(StatusNota.PENDENTE, 1L)))
+            .containsIgnoringCase("idx_notas_loja_status");
+    }
+
+    @Test
+    void notasDaCategoriaUsamIndiceDaFk() {
+        assertThat(plano(() -> notaRepository.findByCategoriaIdOrderByDataNotaDesc(1L)))
+            .containsIgnoringCase("fk_notas_categoria_index");
+    }
+
+    @Test
+    void paginaSeguinteDaCategoriaUsaIndiceCategoriaData() {
+        assertThat(plano(() -> notaRepository.findPaginaPorCategoriaApos(1L, AGORA, 10L, Limit.of(51))))
+            .containsIgnoringCase("idx_notas_categoria_data")
+            .containsIgnoringCase("data_nota <=");
+    }
+
+    @Test
+    void paginaSeguinteDaLojaUsaIndiceLojaData() {
+        assertThat(plano(() -> notaRepository.findPaginaPorLojaApos(1L, AGORA, 10L, Limit.of(51))))
+            .containsIgnoringCase("idx_notas_loja_data")
+            .containsIgnoringCase("data_nota <=");
+    }
+
+    @Test
+    void paginaSeguinteDasNotasUsaFaixaNoIndiceData() {
+        assertThat(plano(() -> notaRepository.findPaginaApos(AGORA, 10L, Limit.of(51))))
+            .containsIgnoringCase("idx_notas_data: data_nota <=");
+    }
+
+    @Test
+    void paginaSeguinteDosLembretesUsaFaixaNoIndiceDataHora() {
+        assertThat(plano(() -> lembreteRepository.findPaginaApos(AGORA, 10L, Limit.of(51))))
+            .containsIgnoringCase("idx_lembretes_data_hora: data_hora_lembrete >=");
+    }
+
+    @Test
+    void categoriasDaLojaUsamIndiceDaFk() {
+        assertThat(plano(() -> categoriaRepository.findByLojaId(1L)))
+            .containsIgnoringCase("fk_categorias_loja_index");
+    }
+
+    @Test
+    void paginaSeguinteDasCategoriasDaLojaUsaIndiceCategoriasLoja() {
+        assertThat(plano(() -> categoriaRepository.findByLojaIdAndIdGreaterThanOrderByIdAsc(1L, 10L, Limit.of(51))))
+            .containsIgnoringCase("idx_categorias_loja");
+    }
+
+    @Test
+    void contatosDaLojaUsamIndiceDaFk() {
+        assertThat(plano(() -> contatoRepository.findByLojaIdOrderByNomeAsc(1L)))
+            .containsIgnoringCase("fk_contatos_loja_index");
+    }
+
+    // Executa a consulta para capturar o único SQL que ela envia e devolve o EXPLAIN dele. O plano de um comando
+    // preparado não depende dos valores, então os parâmetros vão nulos
+    private String plano(Runnable consulta) {
+        Map<String, Integer> execucoes;
+        try (ContadorSql.Escopo escopo = ContadorSql.abrir()) {
+            consulta.run();
+            execucoes = escopo.relatorio().execucoesPorSql();
+        }
+        assertThat(execucoes).hasSize(1);
+        String sql = execucoes.keySet().iterator().next();
+        return jdbcTemplate.execute((ConnectionCallback<String>) conexao -> {
+            try (PreparedStatement explain = conexao.prepareStatement("EXPLAIN " + sql)) {
+                for (int i = 1; i <= explain.getParameterMetaData().getParameterCount(); i++) {
+                    explain.setObject(i, null);
+                }
+                try (ResultSet plano = explain.executeQuery()) {
+                    plano.next();
+                    return plano.getString(1);
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,35 @@
+package com.notasbko.service;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+// Orçamento de comandos SQL para testes: executa a ação num escopo do ContadorSql e falha se ela enviar mais que o
+// máximo de comandos ou repetir algum SQL (N+1) a partir de limiteRepeticoes execuções
+public final class OrcamentoSql {
+
+    private OrcamentoSql() {
+    }
+
+    public static <T> T comOrcamento(int maximo, int limiteRepeticoes, Callable<T> acao) throws Exception {
+        T resultado;
+        ContadorSql.Relatorio relatorio;
+        try (ContadorSql.Escopo escopo = ContadorSql.abrir()) {
+            resultado = acao.call();
+            relatorio = escopo.relatorio();
+        }
+        if (relatorio.total() > maximo) {
+            throw new AssertionError("Orçamento de " + maximo + " comandos SQL excedido: " + relatorio.total()
+                + " executados" + System.lineSeparator() + relatorio.descricao());
+        }
+        Map<String, Integer> repetidos = relatorio.repetidos(limiteRepeticoes);
+        if (!repetidos.isEmpty()) {
+            throw new AssertionError("SQL repetido (N+1):" + System.lineSeparator()
+                + new ContadorSql.Relatorio(relatorio.total(), repetidos).descricao());
+        }
+        return resultado;
+    }
+
+    public static <T> T comOrcamento(int maximo, Callable<T> acao) throws Exception {
+        return comOrcamento(maximo, Integer.MAX_VALUE, acao);
+    }
+}